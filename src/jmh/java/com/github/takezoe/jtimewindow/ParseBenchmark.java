@@ -0,0 +1,48 @@
+package com.github.takezoe.jtimewindow;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of TimeWindowBuilder.parse over the expressions in README.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({
+        "1h", "1d", "1M", "-1h", "-1h/now", "-60m/2017-01-23 01:23:45", "-1d", "-7d", "-7d/now", "-3d/2017-04-07",
+        "+7d", "+7d/now", "-1w", "-1M", "-1q", "-1y", "-1h/2017-01-23 01:00:00", "-1h/2017-01-23 01:23:45",
+        "-1M/2017-01-23 01:23:45", "0M/2017-01-23)", "+1M/2017-01-23 01:23:45)"
+    })
+    public String expression;
+
+    private TimeWindowBuilder builder;
+    private TimeWindowBuilder currentTimeBuilder;
+
+    @Setup
+    public void setup() {
+        builder = TimeWindow.withTimeZone("PDT").withOffset("2016-06-26 01:23:45-0700");
+        currentTimeBuilder = TimeWindow.withTimeZone("PDT");
+    }
+
+    @Benchmark
+    public TimeWindow parse() {
+        return builder.parse(expression);
+    }
+
+    @Benchmark
+    public TimeWindow parseAtCurrentTime() {
+        return currentTimeBuilder.parse(expression);
+    }
+
+    @Benchmark
+    public TimeWindowExpression compile() {
+        return TimeWindowExpression.compile(expression);
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.takezoe.jtimewindow;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of TimeParser.parse and FastTimeParser for each accepted format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeParserBenchmark {
+
+    @Param({
+        "2017-01-01",
+        "2016-12-01 08:00:01",
+        "2016-12-01 08:00:01.123",
+        "2017-01-01 23:01:23-0700",
+        "2017-01-01 23:01:23-07:00",
+        "2017-01-01 01:23:45Z",
+        "2017-01-01 00:00:00 UTC",
+        "2017-01-01 00:00:00 America/Los_Angeles",
+        "2017-01-01T01:23:45+09:00"
+    })
+    public String timestamp;
+
+    @Benchmark
+    public ZonedDateTime parse() {
+        return TimeParser.parse(timestamp, Constants.UTC);
+    }
+
+    @Benchmark
+    public ZonedDateTime fastParse() {
+        return FastTimeParser.parse(timestamp, Constants.UTC);
+    }
+
+    @Benchmark
+    public long fastParseEpochMillis() {
+        return FastTimeParser.parseEpochMillis(timestamp, Constants.UTC);
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.takezoe.jtimewindow;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of splitting, formatting and intersecting time windows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeWindowBenchmark {
+
+    private TimeWindowBuilder builder;
+    private TimeWindow twoYears;
+    private TimeWindow today;
+    private TimeWindow yesterday;
+    private TimeVector vector;
+    private ZonedDateTime now;
+    private long nowMillis;
+
+    @Setup
+    public void setup() {
+        builder = TimeWindow.withTimeZone("PDT").withOffset("2016-06-26 01:23:45-0700");
+        twoYears = builder.parse("-2y/now");
+        today = builder.parse("today");
+        yesterday = builder.parse("yesterday/now");
+        vector = TimeVector.of("-7d");
+        now = builder.now();
+        nowMillis = now.toInstant().toEpochMilli();
+    }
+
+    @Benchmark
+    public List<TimeWindow> splitIntoHours() {
+        return twoYears.splitIntoHours();
+    }
+
+    @Benchmark
+    public List<TimeWindow> splitIntoDays() {
+        return twoYears.splitIntoDays();
+    }
+
+    @Benchmark
+    public String formatTimestamp() {
+        return TimeStampFormatter.formatTimestamp(now);
+    }
+
+    @Benchmark
+    public String formatTimestampMillis() {
+        return TimeStampFormatter.formatTimestamp(nowMillis, Constants.UTC);
+    }
+
+    @Benchmark
+    public String formatTimeWindow() {
+        return today.toString();
+    }
+
+    @Benchmark
+    public TimeWindow timeWindowFrom() {
+        return vector.timeWindowFrom(now);
+    }
+
+    @Benchmark
+    public boolean intersectsWith() {
+        return today.intersectsWith(yesterday);
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.takezoe.jtimewindow;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable {@link CharSequence} view of ASCII bytes, which lets byte input go through
+ * the same parsers as strings without decoding.
+ */
+final class AsciiSequence implements CharSequence {
+
+    // Either of bytes or buffer is used
+    private byte[] bytes;
+    private ByteBuffer buffer;
+    private int offset;
+    private int length;
+
+    AsciiSequence() {
+    }
+
+    AsciiSequence reset(byte[] bytes, int from, int to) {
+        if (from < 0 || to < from || to > bytes.length) {
+            throw new IndexOutOfBoundsException("Invalid range [" + from + "," + to + ") of " + bytes.length + " bytes");
+        }
+        this.bytes = bytes;
+        this.buffer = null;
+        this.offset = from;
+        this.length = to - from;
+        return this;
+    }
+
+    /**
+     * Views <code>buffer[from, to)</code> by absolute indices. The position and limit of the buffer are not changed.
+     */
+    AsciiSequence reset(ByteBuffer buffer, int from, int to) {
+        if (from < 0 || to < from || to > buffer.limit()) {
+            throw new IndexOutOfBoundsException("Invalid range [" + from + "," + to + ") of " + buffer.limit() + " bytes");
+        }
+        if (buffer.hasArray()) {
+            this.bytes = buffer.array();
+            this.buffer = null;
+            this.offset = buffer.arrayOffset() + from;
+        } else {
+            this.bytes = null;
+            this.buffer = buffer;
+            this.offset = from;
+        }
+        this.length = to - from;
+        return this;
+    }
+
+    /**
+     * Drops the reference to the bytes, so that a reused instance doesn't keep them reachable.
+     */
+    void release() {
+        this.bytes = null;
+        this.buffer = null;
+        this.length = 0;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (bytes != null) {
+            return (char) (bytes[offset + index] & 0xFF);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return toString().substring(start, end);
+    }
+
+    @Override
+    public String toString() {
+        if (bytes != null) {
+            return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        byte[] copy = new byte[length];
+        for (int i = 0; i < length; i++) {
+            copy[i] = buffer.get(offset + i);
+        }
+        return new String(copy, StandardCharsets.ISO_8859_1);
+    }
+}
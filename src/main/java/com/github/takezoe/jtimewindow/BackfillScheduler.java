@@ -0,0 +1,227 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs a task for each sub-window of a time window split on the grid of a {@link TimeWindowUnit}, in the same way as
+ * {@link TimeWindow#splitInto(TimeWindowUnit, long)}.
+ * <p>
+ * Sub-windows are generated lazily by index in the given order, and at most <code>concurrency</code> of them run
+ * at the same time, so submitting work blocks until a running one completes. A failed sub-window is retried up to
+ * <code>maxRetries</code> times in the same thread. Without an executor, a pool of <code>concurrency</code> threads
+ * is created for each run.
+ */
+public final class BackfillScheduler {
+
+    public enum Order {
+        OLDEST_FIRST, NEWEST_FIRST
+    }
+
+    public interface Task {
+        void run(TimeWindow window) throws Exception;
+    }
+
+    /**
+     * Receives the progress of a run. Methods are called in the threads which run the task.
+     */
+    public interface ProgressListener {
+        void onSuccess(TimeWindow window, long completed, long total);
+
+        default void onRetry(TimeWindow window, int attempt, Exception error) {
+        }
+
+        default void onFailure(TimeWindow window, Exception error) {
+        }
+    }
+
+    public static final class Result {
+        private final long total;
+        private final long succeeded;
+        private final List<TimeWindow> failed;
+
+        Result(long total, long succeeded, List<TimeWindow> failed) {
+            this.total = total;
+            this.succeeded = succeeded;
+            this.failed = failed;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getSucceeded() {
+            return succeeded;
+        }
+
+        /**
+         * Returns the sub-windows which failed after retries, sorted by time.
+         */
+        public List<TimeWindow> getFailed() {
+            return failed;
+        }
+
+        public boolean isSuccess() {
+            return failed.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Result(total=" + total + ", succeeded=" + succeeded + ", failed=" + failed + ")";
+        }
+    }
+
+    private static final ProgressListener NO_LISTENER = (window, completed, total) -> { };
+
+    private final TimeWindowUnit unit;
+    private final long step;
+    private final BusinessCalendar calendar;
+    private final int concurrency;
+    private final Order order;
+    private final int maxRetries;
+    private final Executor executor;
+    private final ProgressListener listener;
+
+    public BackfillScheduler(TimeWindowUnit unit) {
+        this(unit, 1, BusinessCalendar.WEEKDAYS, Runtime.getRuntime().availableProcessors(), Order.OLDEST_FIRST, 0, null, NO_LISTENER);
+    }
+
+    private BackfillScheduler(TimeWindowUnit unit, long step, BusinessCalendar calendar, int concurrency, Order order,
+                              int maxRetries, Executor executor, ProgressListener listener) {
+        this.unit = unit;
+        this.step = step;
+        this.calendar = calendar;
+        this.concurrency = concurrency;
+        this.order = order;
+        this.maxRetries = maxRetries;
+        this.executor = executor;
+        this.listener = listener;
+    }
+
+    public BackfillScheduler withStep(long step) {
+        if (step <= 0) {
+            throw new IllegalArgumentException("Invalid step: " + step);
+        }
+        return new BackfillScheduler(unit, step, calendar, concurrency, order, maxRetries, executor, listener);
+    }
+
+    /**
+     * Sets the calendar of {@link TimeWindowUnit#BusinessDay}.
+     */
+    public BackfillScheduler withCalendar(BusinessCalendar calendar) {
+        return new BackfillScheduler(unit, step, calendar, concurrency, order, maxRetries, executor, listener);
+    }
+
+    public BackfillScheduler withConcurrency(int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+        }
+        return new BackfillScheduler(unit, step, calendar, concurrency, order, maxRetries, executor, listener);
+    }
+
+    public BackfillScheduler withOrder(Order order) {
+        return new BackfillScheduler(unit, step, calendar, concurrency, order, maxRetries, executor, listener);
+    }
+
+    public BackfillScheduler withMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Invalid max retries: " + maxRetries);
+        }
+        return new BackfillScheduler(unit, step, calendar, concurrency, order, maxRetries, executor, listener);
+    }
+
+    /**
+     * Runs tasks on the given executor instead of a pool created for each run. The executor is not shut down.
+     */
+    public BackfillScheduler withExecutor(Executor executor) {
+        return new BackfillScheduler(unit, step, calendar, concurrency, order, maxRetries, executor, listener);
+    }
+
+    public BackfillScheduler withListener(ProgressListener listener) {
+        return new BackfillScheduler(unit, step, calendar, concurrency, order, maxRetries, executor, listener);
+    }
+
+    public Result run(String expression, TimeWindowBuilder builder, Task task) throws InterruptedException {
+        return run(builder.parse(expression), task);
+    }
+
+    /**
+     * Runs the task for each sub-window of the window, and blocks until all of them complete.
+     */
+    public Result run(TimeWindow window, Task task) throws InterruptedException {
+        TimeWindowSpliterator spliterator = new TimeWindowSpliterator(window, unit, step, calendar, false);
+        long total = spliterator.estimateSize();
+        AtomicLong succeeded = new AtomicLong();
+        ConcurrentLinkedQueue<TimeWindow> failed = new ConcurrentLinkedQueue<>();
+        Semaphore permits = new Semaphore(concurrency);
+
+        ExecutorService pool = (executor == null) ? newPool() : null;
+        Executor runner = (pool != null) ? pool : executor;
+        try {
+            for (long i = 0; i < total; i++) {
+                long k = (order == Order.OLDEST_FIRST) ? i : total - 1 - i;
+                TimeWindow subWindow = new TimeWindow(spliterator.boundary(k),
+                        (k + 1 < total) ? spliterator.boundary(k + 1) : window.getEnd());
+                permits.acquire();
+                try {
+                    runner.execute(() -> {
+                        try {
+                            runWithRetries(subWindow, task, succeeded, failed, total);
+                        } finally {
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    permits.release();
+                    throw e;
+                }
+            }
+            // Waits for the running tasks
+            permits.acquire(concurrency);
+            permits.release(concurrency);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        List<TimeWindow> failedWindows = new ArrayList<>(failed);
+        failedWindows.sort(Comparator.comparing(TimeWindow::getStart, ZonedDateTime::compareTo));
+        return new Result(total, succeeded.get(), failedWindows);
+    }
+
+    private void runWithRetries(TimeWindow window, Task task, AtomicLong succeeded, ConcurrentLinkedQueue<TimeWindow> failed, long total) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                task.run(window);
+            } catch (Exception e) {
+                if (attempt < maxRetries) {
+                    listener.onRetry(window, attempt + 1, e);
+                    continue;
+                }
+                failed.add(window);
+                listener.onFailure(window, e);
+                return;
+            }
+            listener.onSuccess(window, succeeded.incrementAndGet(), total);
+            return;
+        }
+    }
+
+    private ExecutorService newPool() {
+        return Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "jtimewindow-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
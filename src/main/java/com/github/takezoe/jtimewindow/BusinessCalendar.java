@@ -0,0 +1,322 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A calendar of business days, i.e. working days of the week except holidays, with working hours and exclusion windows
+ * such as maintenance windows.
+ * <p>
+ * Business days are precomputed into a bitset per year on the first use of the year, together with the number of
+ * business days before each word of the bitset. Stepping business days and counting them are lookups of these tables.
+ * Instances are immutable and thread-safe.
+ */
+public final class BusinessCalendar {
+
+    /**
+     * Monday to Friday without holidays, working all day.
+     */
+    public static final BusinessCalendar WEEKDAYS = of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+            DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+
+    private static final class YearMask {
+        final long firstDay;
+        // The i-th bit is set if firstDay + i is a business day
+        final long[] words;
+        // The number of business days before each word, and the total at the end
+        final int[] ranks;
+
+        YearMask(long firstDay, long[] words) {
+            this.firstDay = firstDay;
+            this.words = words;
+            this.ranks = new int[words.length + 1];
+            for (int i = 0; i < words.length; i++) {
+                ranks[i + 1] = ranks[i] + Long.bitCount(words[i]);
+            }
+        }
+
+        int total() {
+            return ranks[words.length];
+        }
+
+        boolean contains(long epochDay) {
+            int i = (int) (epochDay - firstDay);
+            return (words[i >>> 6] & (1L << i)) != 0;
+        }
+
+        // The number of business days in [firstDay, epochDay)
+        int rank(long epochDay) {
+            int i = (int) (epochDay - firstDay);
+            return ranks[i >>> 6] + Long.bitCount(words[i >>> 6] & ((1L << i) - 1));
+        }
+
+        // The epoch day of the n-th (0-based) business day of the year
+        long select(int n) {
+            int w = 0;
+            while (ranks[w + 1] <= n) {
+                w++;
+            }
+            long word = words[w];
+            for (int i = ranks[w]; i < n; i++) {
+                word &= word - 1;
+            }
+            return firstDay + w * 64L + Long.numberOfTrailingZeros(word);
+        }
+    }
+
+    // Bits of working days, where Monday is the lowest bit
+    private final int weekMask;
+    // Sorted epoch days
+    private final long[] holidays;
+    private final long workStartMillis;
+    private final long workEndMillis;
+    private final TimeWindowSet exclusions;
+    private final ConcurrentHashMap<Long, YearMask> years = new ConcurrentHashMap<>();
+
+    private BusinessCalendar(int weekMask, long[] holidays, long workStartMillis, long workEndMillis, TimeWindowSet exclusions) {
+        this.weekMask = weekMask;
+        this.holidays = holidays;
+        this.workStartMillis = workStartMillis;
+        this.workEndMillis = workEndMillis;
+        this.exclusions = exclusions;
+    }
+
+    /**
+     * Creates a calendar whose business days are the given days of the week.
+     */
+    public static BusinessCalendar of(DayOfWeek... workingDays) {
+        int weekMask = 0;
+        for (DayOfWeek day : workingDays) {
+            weekMask |= 1 << (day.getValue() - 1);
+        }
+        if (weekMask == 0) {
+            throw new IllegalArgumentException("No working day");
+        }
+        return new BusinessCalendar(weekMask, new long[0], 0, CivilDate.MILLIS_PER_DAY, TimeWindowSet.empty(Constants.UTC));
+    }
+
+    public BusinessCalendar withHolidays(LocalDate... dates) {
+        return withHolidays(Arrays.asList(dates));
+    }
+
+    public BusinessCalendar withHolidays(Collection<LocalDate> dates) {
+        long[] newHolidays = Arrays.copyOf(holidays, holidays.length + dates.size());
+        int i = holidays.length;
+        for (LocalDate date : dates) {
+            newHolidays[i++] = date.toEpochDay();
+        }
+        Arrays.sort(newHolidays);
+        return new BusinessCalendar(weekMask, newHolidays, workStartMillis, workEndMillis, exclusions);
+    }
+
+    /**
+     * Sets the working hours of business days. The end can be {@link LocalTime#MIDNIGHT} for the end of the day.
+     */
+    public BusinessCalendar withWorkingHours(LocalTime start, LocalTime end) {
+        long startMillis = start.toNanoOfDay() / 1000_000;
+        long endMillis = end.equals(LocalTime.MIDNIGHT) ? CivilDate.MILLIS_PER_DAY : end.toNanoOfDay() / 1000_000;
+        if (startMillis >= endMillis) {
+            throw new IllegalArgumentException("Invalid working hours: " + start + "-" + end);
+        }
+        return new BusinessCalendar(weekMask, holidays, startMillis, endMillis, exclusions);
+    }
+
+    /**
+     * Excludes the given windows, e.g. maintenance windows, from the working time.
+     */
+    public BusinessCalendar withExclusions(TimeWindowSet windows) {
+        return new BusinessCalendar(weekMask, holidays, workStartMillis, workEndMillis, exclusions.union(windows));
+    }
+
+    public BusinessCalendar withExclusions(TimeWindow... windows) {
+        return withExclusions(TimeWindowSet.of(Constants.UTC, Arrays.asList(windows)));
+    }
+
+    public boolean isBusinessDay(LocalDate date) {
+        return isBusinessDay(date.toEpochDay());
+    }
+
+    /**
+     * Returns the date <code>n</code> business days after the given date, or before it if <code>n</code> is negative.
+     * The given date itself is not counted, and it's returned as it is if <code>n</code> is 0.
+     */
+    public LocalDate plusBusinessDays(LocalDate date, long n) {
+        return LocalDate.ofEpochDay(plusBusinessDays(date.toEpochDay(), n));
+    }
+
+    /**
+     * Returns the number of business days in <code>[from, to)</code>.
+     */
+    public long businessDaysBetween(LocalDate from, LocalDate to) {
+        return countBusinessDays(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * Returns the working time in the window, i.e. the working hours of business days on the zone of the window
+     * except the exclusions.
+     */
+    public TimeWindowSet workingTime(TimeWindow window) {
+        ZoneId zone = window.getStart().getZone();
+        long start = window.startEpochMillis();
+        long end = window.endEpochMillis();
+        ZoneOffset offset = window.getStart().getOffset();
+        if (start >= end) {
+            return TimeWindowSet.empty(zone);
+        }
+        long firstDay = Math.floorDiv(start + offset.getTotalSeconds() * 1000L, CivilDate.MILLIS_PER_DAY) - 1;
+        long lastDay = Math.floorDiv(end + window.getEnd().getOffset().getTotalSeconds() * 1000L, CivilDate.MILLIS_PER_DAY);
+
+        long[] bounds = new long[(int) Math.min(2 * (countBusinessDays(firstDay, lastDay + 1) + 1), Integer.MAX_VALUE - 8)];
+        int size = 0;
+        long day = isBusinessDay(firstDay) ? firstDay : plusBusinessDays(firstDay, 1);
+        while (day <= lastDay) {
+            long s = Math.max(start, toEpochMillis(day * CivilDate.MILLIS_PER_DAY + workStartMillis, zone));
+            long e = Math.min(end, toEpochMillis(day * CivilDate.MILLIS_PER_DAY + workEndMillis, zone));
+            if (s < e) {
+                bounds[size++] = s;
+                bounds[size++] = e;
+            }
+            day = plusBusinessDays(day, 1);
+        }
+        TimeWindowSet working = TimeWindowSet.ofBounds(zone, Arrays.copyOf(bounds, size));
+        return exclusions.isEmpty() ? working : working.subtract(exclusions);
+    }
+
+    private static long toEpochMillis(long localMillis, ZoneId zone) {
+        if (zone instanceof ZoneOffset) {
+            return localMillis - ((ZoneOffset) zone).getTotalSeconds() * 1000L;
+        }
+        // Same as ZonedDateTime.of, which uses the earlier offset in an overlap
+        return ZoneRegistry.transitionsOf(zone).localToEpochMillis(localMillis);
+    }
+
+    /**
+     * Returns the start of the last business day at or before the given time, which is the grid of
+     * {@link TimeWindowUnit#BusinessDay}.
+     */
+    ZonedDateTime truncate(ZonedDateTime t) {
+        ZonedDateTime day = t.truncatedTo(ChronoUnit.DAYS);
+        long epochDay = t.toLocalDate().toEpochDay();
+        long businessDay = previousOrSameBusinessDay(epochDay);
+        return (businessDay == epochDay) ? day : day.minusDays(epochDay - businessDay);
+    }
+
+    ZonedDateTime increment(ZonedDateTime a, long v) {
+        long epochDay = a.toLocalDate().toEpochDay();
+        return a.plusDays(plusBusinessDays(epochDay, v) - epochDay);
+    }
+
+    long truncateLocal(long localMillis) {
+        return previousOrSameBusinessDay(Math.floorDiv(localMillis, CivilDate.MILLIS_PER_DAY)) * CivilDate.MILLIS_PER_DAY;
+    }
+
+    long incrementLocal(long localMillis, long v) {
+        long epochDay = Math.floorDiv(localMillis, CivilDate.MILLIS_PER_DAY);
+        return localMillis + (plusBusinessDays(epochDay, v) - epochDay) * CivilDate.MILLIS_PER_DAY;
+    }
+
+    boolean isBusinessDay(long epochDay) {
+        return maskOf(epochDay).contains(epochDay);
+    }
+
+    long previousOrSameBusinessDay(long epochDay) {
+        return isBusinessDay(epochDay) ? epochDay : plusBusinessDays(epochDay, -1);
+    }
+
+    long plusBusinessDays(long epochDay, long n) {
+        if (n == 0) {
+            return epochDay;
+        }
+        YearMask mask = maskOf(epochDay);
+        if (n > 0) {
+            // The index of the target among the business days of the year, counted from the next day
+            long index = mask.rank(epochDay) + (mask.contains(epochDay) ? 1 : 0) + n - 1;
+            while (index >= mask.total()) {
+                index -= mask.total();
+                mask = maskOf(nextYear(mask));
+            }
+            return mask.select((int) index);
+        } else {
+            long index = mask.rank(epochDay) + n;
+            while (index < 0) {
+                mask = maskOf(mask.firstDay - 1);
+                index += mask.total();
+            }
+            return mask.select((int) index);
+        }
+    }
+
+    /**
+     * Returns the number of business days in <code>[from, to)</code> of epoch days.
+     */
+    long countBusinessDays(long from, long to) {
+        if (from >= to) {
+            return 0;
+        }
+        YearMask mask = maskOf(from);
+        long count = -mask.rank(from);
+        while (to >= nextYear(mask)) {
+            count += mask.total();
+            mask = maskOf(nextYear(mask));
+        }
+        return count + mask.rank(to);
+    }
+
+    private static long nextYear(YearMask mask) {
+        return mask.firstDay + lengthOfYear(mask.firstDay);
+    }
+
+    private static int lengthOfYear(long firstDay) {
+        return CivilDate.isLeapYear(CivilDate.year(CivilDate.fromEpochDay(firstDay))) ? 366 : 365;
+    }
+
+    private YearMask maskOf(long epochDay) {
+        long year = CivilDate.year(CivilDate.fromEpochDay(epochDay));
+        YearMask mask = years.get(year);
+        if (mask == null) {
+            mask = years.computeIfAbsent(year, this::computeMask);
+        }
+        return mask;
+    }
+
+    private YearMask computeMask(long year) {
+        long firstDay = CivilDate.toEpochDay(year, 1, 1);
+        int length = CivilDate.isLeapYear(year) ? 366 : 365;
+        long[] words = new long[(length + 63) / 64];
+        for (int i = 0; i < length; i++) {
+            // 1970-01-01 is Thursday
+            int dayOfWeek = (int) Math.floorMod(firstDay + i + 3, 7);
+            if ((weekMask & (1 << dayOfWeek)) != 0) {
+                words[i >>> 6] |= 1L << i;
+            }
+        }
+        int from = lowerBound(holidays, firstDay);
+        for (int h = from; h < holidays.length && holidays[h] < firstDay + length; h++) {
+            int i = (int) (holidays[h] - firstDay);
+            words[i >>> 6] &= ~(1L << i);
+        }
+        return new YearMask(firstDay, words);
+    }
+
+    private static int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A coarse clock which reads the source clock on a background tick, so reading the time is a single volatile read.
+ * The time may lag behind the source clock by up to the tick interval. Close the clock to stop the tick.
+ */
+public final class CachedClock extends Clock implements AutoCloseable {
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "jtimewindow-cached-clock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Shared by the clocks derived by withZone
+    private static final class Tick implements Runnable {
+        final Clock source;
+        volatile long millis;
+        // Set right after scheduling, and read by close() on any thread
+        volatile ScheduledFuture<?> future;
+
+        Tick(Clock source) {
+            this.source = source;
+            this.millis = source.millis();
+        }
+
+        @Override
+        public void run() {
+            millis = source.millis();
+        }
+    }
+
+    private final Tick tick;
+    private final ZoneId zone;
+
+    private CachedClock(Tick tick, ZoneId zone) {
+        this.tick = tick;
+        this.zone = zone;
+    }
+
+    /**
+     * Starts a clock which reads the system clock every <code>tickMillis</code> milliseconds.
+     */
+    public static CachedClock start(long tickMillis) {
+        return start(Clock.systemUTC(), tickMillis);
+    }
+
+    public static CachedClock start(Clock source, long tickMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Invalid tick: " + tickMillis);
+        }
+        Tick tick = new Tick(source);
+        tick.future = scheduler.scheduleAtFixedRate(tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        return new CachedClock(tick, source.getZone());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new CachedClock(tick, zone);
+    }
+
+    @Override
+    public long millis() {
+        return tick.millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(tick.millis);
+    }
+
+    /**
+     * Stops the tick of this clock and the clocks derived from it. The time is frozen after that.
+     */
+    @Override
+    public void close() {
+        tick.future.cancel(false);
+    }
+
+    @Override
+    public String toString() {
+        return "CachedClock[" + tick.source + "," + zone + "]";
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.takezoe.jtimewindow;
+
+/**
+ * Conversions between epoch days and proleptic Gregorian dates without allocating {@link java.time.LocalDate}.
+ * A date is packed into a long as <code>(year &lt;&lt; 9) | (month &lt;&lt; 5) | day</code>.
+ */
+final class CivilDate {
+
+    static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    private CivilDate() {
+    }
+
+    /**
+     * The month of the last conversion. Consecutive timestamps usually fall into the same month,
+     * so this avoids the full conversion in most cases. Instances are immutable, so racy updates are harmless.
+     */
+    private static final class CachedMonth {
+        final long firstDay;
+        final long nextFirstDay;
+        final long year;
+        final int month;
+
+        CachedMonth(long firstDay, long nextFirstDay, long year, int month) {
+            this.firstDay = firstDay;
+            this.nextFirstDay = nextFirstDay;
+            this.year = year;
+            this.month = month;
+        }
+    }
+
+    private static CachedMonth cachedMonth = new CachedMonth(0, 31, 1970, 1);
+
+    static long pack(long year, int month, int day) {
+        return (year << 9) | (month << 5) | day;
+    }
+
+    static long year(long date) {
+        return date >> 9;
+    }
+
+    static int month(long date) {
+        return (int) ((date >> 5) & 0xF);
+    }
+
+    static int day(long date) {
+        return (int) (date & 0x1F);
+    }
+
+    static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int lengthOfMonth(long year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    static long toEpochDay(long year, int month, int day) {
+        long y = (month <= 2) ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    static long fromEpochDay(long epochDay) {
+        CachedMonth cache = cachedMonth;
+        if (cache.firstDay <= epochDay && epochDay < cache.nextFirstDay) {
+            return pack(cache.year, cache.month, (int) (epochDay - cache.firstDay) + 1);
+        }
+
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        long firstDay = epochDay - day + 1;
+        cachedMonth = new CachedMonth(firstDay, firstDay + lengthOfMonth(year, month), year, month);
+        return pack(year, month, day);
+    }
+
+    static long firstDayOfMonth(long epochDay) {
+        return epochDay - day(fromEpochDay(epochDay)) + 1;
+    }
+
+    /**
+     * Adds months in the same way as {@link java.time.LocalDate#plusMonths(long)},
+     * which clamps the day to the last valid day of the resulting month.
+     */
+    static long plusMonths(long epochDay, long months) {
+        long date = fromEpochDay(epochDay);
+        long monthCount = year(date) * 12 + (month(date) - 1) + months;
+        long year = Math.floorDiv(monthCount, 12);
+        int month = (int) Math.floorMod(monthCount, 12) + 1;
+        int day = Math.min(day(date), lengthOfMonth(year, month));
+        return toEpochDay(year, month, day);
+    }
+}
@@ -0,0 +1,243 @@
+package com.github.takezoe.jtimewindow;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * A parser for the timestamps accepted by {@link TimeParser#parse(String, ZoneOffset)}, which reads digits positionally
+ * instead of going through {@link java.time.format.DateTimeFormatter}.
+ * <p>
+ * <code>yyyy-MM-dd</code> and <code>yyyy-MM-dd( |T)HH:mm:ss[.SSS][Z|&plusmn;HH:MM|&plusmn;HHMM| UTC]</code> are parsed
+ * without allocation. Other strings, such as ones with zone names, are delegated to {@link TimeParser}.
+ * Failures are signaled by {@link #INVALID} or null instead of exceptions.
+ */
+public final class FastTimeParser {
+
+    /**
+     * Returned by the epoch millis parsers if the string is not a valid timestamp.
+     */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    // The string doesn't have the fixed layout, so needs to be parsed by TimeParser
+    private static final long MALFORMED = Long.MIN_VALUE + 1;
+
+    // Special results of zoneOf other than offset seconds
+    private static final int NO_ZONE = Integer.MIN_VALUE;
+    private static final int UTC_ZONE = Integer.MIN_VALUE + 1;
+    private static final int UNKNOWN_ZONE = Integer.MIN_VALUE + 2;
+    private static final int INVALID_ZONE = Integer.MIN_VALUE + 3;
+
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final int MAX_OFFSET_SECONDS = 18 * 60 * 60;
+
+    // Views of bytes reused per thread, so that parsing bytes doesn't allocate
+    private static final ThreadLocal<AsciiSequence> sequences = ThreadLocal.withInitial(AsciiSequence::new);
+
+    private FastTimeParser() {
+    }
+
+    public static long parseEpochMillis(CharSequence s, ZoneOffset zone) {
+        return parseEpochMillis(s, 0, s.length(), zone);
+    }
+
+    /**
+     * Parses <code>s[from, to)</code> into epoch millis. Timestamps without zone are interpreted at the given zone.
+     * Returns {@link #INVALID} if it's not a valid timestamp.
+     */
+    public static long parseEpochMillis(CharSequence s, int from, int to, ZoneOffset zone) {
+        long local = localMillis(s, from, to);
+        if (local == INVALID) {
+            return INVALID;
+        }
+        int offsetSeconds = (local == MALFORMED) ? UNKNOWN_ZONE : zoneOf(s, from, to);
+        switch (offsetSeconds) {
+            case NO_ZONE:
+                return local - zone.getTotalSeconds() * 1000L;
+            case UTC_ZONE:
+                return local;
+            case INVALID_ZONE:
+                return INVALID;
+            case UNKNOWN_ZONE:
+                ZonedDateTime t = TimeParser.parse(s.subSequence(from, to).toString(), zone);
+                return (t == null) ? INVALID : TimeWindow.toEpochMillis(t);
+            default:
+                return local - offsetSeconds * 1000L;
+        }
+    }
+
+    /**
+     * Parses ASCII bytes <code>bytes[from, to)</code> into epoch millis in the same way as
+     * {@link #parseEpochMillis(CharSequence, int, int, ZoneOffset)}.
+     */
+    public static long parseEpochMillis(byte[] bytes, int from, int to, ZoneOffset zone) {
+        AsciiSequence s = sequences.get().reset(bytes, from, to);
+        try {
+            return parseEpochMillis(s, 0, to - from, zone);
+        } finally {
+            s.release();
+        }
+    }
+
+    /**
+     * Parses ASCII bytes <code>buffer[from, to)</code>, given by absolute indices, into epoch millis in the same way as
+     * {@link #parseEpochMillis(CharSequence, int, int, ZoneOffset)}. The position of the buffer is not changed.
+     */
+    public static long parseEpochMillis(ByteBuffer buffer, int from, int to, ZoneOffset zone) {
+        AsciiSequence s = sequences.get().reset(buffer, from, to);
+        try {
+            return parseEpochMillis(s, 0, to - from, zone);
+        } finally {
+            s.release();
+        }
+    }
+
+    public static ZonedDateTime parse(ByteBuffer buffer, int from, int to, ZoneOffset zone) {
+        AsciiSequence s = sequences.get().reset(buffer, from, to);
+        try {
+            return parse(s, 0, to - from, zone);
+        } finally {
+            s.release();
+        }
+    }
+
+    public static ZonedDateTime parse(CharSequence s, ZoneOffset zone) {
+        return parse(s, 0, s.length(), zone);
+    }
+
+    /**
+     * Parses <code>s[from, to)</code> in the same way as {@link TimeParser#parse(String, ZoneOffset)}.
+     * Returns null if it's not a valid timestamp.
+     */
+    public static ZonedDateTime parse(CharSequence s, int from, int to, ZoneOffset zone) {
+        long local = localMillis(s, from, to);
+        if (local == INVALID) {
+            return null;
+        }
+        int offsetSeconds = (local == MALFORMED) ? UNKNOWN_ZONE : zoneOf(s, from, to);
+        switch (offsetSeconds) {
+            case NO_ZONE:
+                return toZonedDateTime(local - zone.getTotalSeconds() * 1000L, zone);
+            case UTC_ZONE:
+                return toZonedDateTime(local, UTC);
+            case INVALID_ZONE:
+                return null;
+            case UNKNOWN_ZONE:
+                return TimeParser.parse(s.subSequence(from, to).toString(), zone);
+            default:
+                return toZonedDateTime(local - offsetSeconds * 1000L, ZoneOffset.ofTotalSeconds(offsetSeconds));
+        }
+    }
+
+    private static ZonedDateTime toZonedDateTime(long epochMillis, ZoneId zone) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+
+    // Returns millis on the local time line, MALFORMED if the layout doesn't match, or INVALID for out of range fields
+    private static long localMillis(CharSequence s, int from, int to) {
+        int length = to - from;
+        if (length < 10 || s.charAt(from + 4) != '-' || s.charAt(from + 7) != '-') {
+            return MALFORMED;
+        }
+        int year = digits(s, from, 4);
+        int month = digits(s, from + 5, 2);
+        int day = digits(s, from + 8, 2);
+        if (year < 0 || month < 0 || day < 0) {
+            return MALFORMED;
+        }
+
+        long millis = 0;
+        if (length > 10) {
+            char separator = s.charAt(from + 10);
+            if (length < 19 || (separator != ' ' && separator != 'T')
+                    || s.charAt(from + 13) != ':' || s.charAt(from + 16) != ':') {
+                return MALFORMED;
+            }
+            int hour = digits(s, from + 11, 2);
+            int minute = digits(s, from + 14, 2);
+            int second = digits(s, from + 17, 2);
+            if (hour < 0 || minute < 0 || second < 0) {
+                return MALFORMED;
+            }
+            millis = ((hour * 60L + minute) * 60 + second) * 1000;
+            if (hasMillis(s, from, to)) {
+                millis += digits(s, from + 20, 3);
+            }
+            // ResolverStyle.SMART accepts 24:00:00 as the end of day
+            if ((hour > 23 && millis != CivilDate.MILLIS_PER_DAY) || minute > 59 || second > 59) {
+                return INVALID;
+            }
+        }
+
+        if (year == 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return INVALID;
+        }
+        // Clamp the day to the end of month like ResolverStyle.SMART
+        day = Math.min(day, CivilDate.lengthOfMonth(year, month));
+        return CivilDate.toEpochDay(year, month, day) * CivilDate.MILLIS_PER_DAY + millis;
+    }
+
+    private static boolean hasMillis(CharSequence s, int from, int to) {
+        return to - from >= 23 && s.charAt(from + 19) == '.' && digits(s, from + 20, 3) >= 0;
+    }
+
+    // Returns offset seconds or one of the special zone results
+    private static int zoneOf(CharSequence s, int from, int to) {
+        int length = to - from;
+        if (length == 10) {
+            return NO_ZONE;
+        }
+        int zoneFrom = from + (hasMillis(s, from, to) ? 23 : 19);
+        int zoneLength = to - zoneFrom;
+        boolean iso = s.charAt(from + 10) == 'T';
+        if (zoneLength == 0) {
+            // TimeParser doesn't accept ISO date time without zone
+            return iso ? INVALID_ZONE : NO_ZONE;
+        }
+        char c = s.charAt(zoneFrom);
+        if (zoneLength == 1 && c == 'Z') {
+            return 0;
+        }
+        if (zoneLength == 4 && c == ' ' && s.charAt(zoneFrom + 1) == 'U' && s.charAt(zoneFrom + 2) == 'T'
+                && s.charAt(zoneFrom + 3) == 'C') {
+            return UTC_ZONE;
+        }
+        if (c != '+' && c != '-') {
+            return UNKNOWN_ZONE;
+        }
+        int hours;
+        int minutes;
+        if (zoneLength == 6 && s.charAt(zoneFrom + 3) == ':') {
+            hours = digits(s, zoneFrom + 1, 2);
+            minutes = digits(s, zoneFrom + 4, 2);
+        } else if (zoneLength == 5) {
+            hours = digits(s, zoneFrom + 1, 2);
+            minutes = digits(s, zoneFrom + 3, 2);
+        } else {
+            return UNKNOWN_ZONE;
+        }
+        if (hours < 0 || minutes < 0) {
+            return UNKNOWN_ZONE;
+        }
+        int seconds = (hours * 60 + minutes) * 60;
+        if (minutes > 59 || seconds > MAX_OFFSET_SECONDS) {
+            return INVALID_ZONE;
+        }
+        return (c == '-') ? -seconds : seconds;
+    }
+
+    // Returns -1 if there is a non-digit character
+    private static int digits(CharSequence s, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) {
+                return -1;
+            }
+            value = value * 10 + d;
+        }
+        return value;
+    }
+}
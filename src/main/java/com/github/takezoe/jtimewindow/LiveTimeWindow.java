@@ -0,0 +1,70 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.ZonedDateTime;
+import java.util.function.Supplier;
+
+/**
+ * The window of a relative expression which is cached until the current time passes the next grid boundary,
+ * e.g. <code>-1h</code> is reevaluated at the top of the next hour. Expressions which contain <code>now</code>
+ * are evaluated every time, and expressions with a fixed date are evaluated only once.
+ * <p>
+ * Instances are created by {@link TimeWindowBuilder#live(String)} and are safe for concurrent access.
+ * Getting a cached window costs a volatile read and a read of the clock of the builder.
+ */
+public final class LiveTimeWindow implements Supplier<TimeWindow> {
+
+    private static final class Snapshot {
+        final TimeWindow window;
+        final long evaluatedAt;
+        final long expiresAt;
+
+        Snapshot(TimeWindow window, long evaluatedAt, long expiresAt) {
+            this.window = window;
+            this.evaluatedAt = evaluatedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final TimeWindowBuilder builder;
+    private final TimeWindowExpression expression;
+    private volatile Snapshot snapshot;
+
+    LiveTimeWindow(TimeWindowBuilder builder, TimeWindowExpression expression) {
+        this.builder = builder;
+        this.expression = expression;
+    }
+
+    public TimeWindowExpression getExpression() {
+        return this.expression;
+    }
+
+    @Override
+    public TimeWindow get() {
+        Snapshot s = snapshot;
+        if (s != null) {
+            if (s.expiresAt == Long.MAX_VALUE) {
+                return s.window;
+            }
+            long now = builder.currentTimeMillis();
+            // The clock may go backwards
+            if (s.evaluatedAt <= now && now < s.expiresAt) {
+                return s.window;
+            }
+        }
+        return evaluate();
+    }
+
+    private TimeWindow evaluate() {
+        ZonedDateTime now = builder.now();
+        TimeWindow window = expression.evaluate(now, builder.getZoneId(), builder.getCalendar());
+        long expiresAt = builder.isCurrentTimePinned() ? Long.MAX_VALUE : expression.expiresAt(now, window, builder.getCalendar());
+        // Concurrent evaluations give the same window, so the last one just wins
+        snapshot = new Snapshot(window, TimeWindow.toEpochMillis(now), expiresAt);
+        return window;
+    }
+
+    @Override
+    public String toString() {
+        return expression + " = " + get();
+    }
+}
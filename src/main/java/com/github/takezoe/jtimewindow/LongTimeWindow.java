@@ -0,0 +1,230 @@
+package com.github.takezoe.jtimewindow;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A time window <code>[start, end)</code> backed by epoch milliseconds.
+ * This is a primitive variant of {@link TimeWindow} which doesn't allocate any {@link ZonedDateTime}.
+ * On a region zone, splits and calendar arithmetic follow the transitions of the zone in the same way as {@link TimeWindow}.
+ */
+public final class LongTimeWindow implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long MILLIS_PER_HOUR = 60 * 60 * 1000L;
+    private static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    private final long start;
+    private final long end;
+    private final ZoneId zone;
+
+    public LongTimeWindow(long startEpochMillis, long endEpochMillis, ZoneOffset zone) {
+        this(startEpochMillis, endEpochMillis, (ZoneId) zone);
+    }
+
+    public LongTimeWindow(long startEpochMillis, long endEpochMillis, ZoneId zone) {
+        this.start = startEpochMillis;
+        this.end = endEpochMillis;
+        // Zones with a fixed offset such as UTC are handled as ZoneOffset
+        this.zone = zone.normalized();
+    }
+
+    public static LongTimeWindow of(TimeWindow window){
+        return new LongTimeWindow(window.startEpochMillis(), window.endEpochMillis(), window.getStart().getZone());
+    }
+
+    public TimeWindow toTimeWindow(){
+        return new TimeWindow(toZonedDateTime(start), toZonedDateTime(end));
+    }
+
+    private ZonedDateTime toZonedDateTime(long epochMillis){
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+
+    public long getStartEpochMillis(){
+        return this.start;
+    }
+
+    public long getEndEpochMillis(){
+        return this.end;
+    }
+
+    /**
+     * Returns the zone offset at the start of this window.
+     */
+    public ZoneOffset getZone(){
+        return ZoneOffset.ofTotalSeconds(offsetSecondsAt(start));
+    }
+
+    public ZoneId getZoneId(){
+        return this.zone;
+    }
+
+    int offsetSecondsAt(long epochMillis){
+        if(zone instanceof ZoneOffset){
+            return ((ZoneOffset) zone).getTotalSeconds();
+        }
+        return ZoneRegistry.transitionsOf(zone).offsetSecondsAt(epochMillis);
+    }
+
+    // Same as ZonedDateTime.ofLocal with the preferred offset
+    private long toEpochMillis(long localMillis, int preferredOffsetSeconds){
+        if(zone instanceof ZoneOffset){
+            return localMillis - preferredOffsetSeconds * 1000L;
+        }
+        return ZoneRegistry.transitionsOf(zone).localToEpochMillis(localMillis, preferredOffsetSeconds);
+    }
+
+    public long lengthMillis(){
+        return end - start;
+    }
+
+    public boolean contains(long epochMillis){
+        return start <= epochMillis && epochMillis < end;
+    }
+
+    public boolean intersectsWith(LongTimeWindow other){
+        return start < other.end && end > other.start;
+    }
+
+    public List<LongTimeWindow> splitAt(long epochMillis){
+        if(epochMillis <= start || epochMillis > end){
+            return Arrays.asList(this);
+        } else {
+            return Arrays.asList(new LongTimeWindow(start, epochMillis, zone), new LongTimeWindow(epochMillis, end, zone));
+        }
+    }
+
+    public LongTimeWindow plus(long n, ChronoUnit unit){
+        return new LongTimeWindow(plus(start, n, unit), plus(end, n, unit), zone);
+    }
+
+    public LongTimeWindow minus(long n, ChronoUnit unit){
+        return plus(-1 * n, unit);
+    }
+
+    // Time units are added to the instant, and date units to the local time as ZonedDateTime.plus does
+    private long plus(long epochMillis, long n, ChronoUnit unit){
+        switch(unit){
+            case MILLIS:
+            case SECONDS:
+            case MINUTES:
+            case HOURS:
+            case HALF_DAYS:
+                return epochMillis + n * unit.getDuration().toMillis();
+            case DAYS:
+                return TimeWindowUnit.Day.incrementMillis(epochMillis, n, zone);
+            case WEEKS:
+                return TimeWindowUnit.Day.incrementMillis(epochMillis, 7 * n, zone);
+            case MONTHS:
+                return TimeWindowUnit.Month.incrementMillis(epochMillis, n, zone);
+            case YEARS:
+                return TimeWindowUnit.Year.incrementMillis(epochMillis, n, zone);
+            default:
+                return Instant.ofEpochMilli(epochMillis).atZone(zone).plus(n, unit).toInstant().toEpochMilli();
+        }
+    }
+
+    private List<LongTimeWindow> splitInto(ChronoUnit unit){
+        List<LongTimeWindow> b = new ArrayList<>();
+        long cursor = start;
+        while(cursor < end){
+            long e = nextBoundary(cursor, unit);
+            if(e <= end){
+                b.add(new LongTimeWindow(cursor, e, zone));
+            } else {
+                b.add(new LongTimeWindow(cursor, end, zone));
+            }
+            cursor = e;
+        }
+        return b;
+    }
+
+    // Same boundaries as TimeWindow.splitInfo, computed on the local time line. As ZonedDateTime does, the cursor
+    // is moved forward first and then adjusted, and each step is resolved with the offset before the step.
+    private long nextBoundary(long cursor, ChronoUnit unit){
+        int offset = offsetSecondsAt(cursor);
+        long local = cursor + offset * 1000L;
+        long moved;
+        switch(unit){
+            case HOURS:
+                moved = cursor + MILLIS_PER_HOUR;
+                break;
+            case DAYS:
+                moved = toEpochMillis(local + MILLIS_PER_DAY, offset);
+                break;
+            case WEEKS:
+                moved = toEpochMillis(local + 7 * MILLIS_PER_DAY, offset);
+                break;
+            case MONTHS:
+                moved = toEpochMillis(TimeWindowUnit.Month.incrementLocal(local, 1), offset);
+                break;
+            default:
+                throw new IllegalStateException("Invalid split unit " + unit + " for range " + toString());
+        }
+
+        int movedOffset = offsetSecondsAt(moved);
+        long movedLocal = moved + movedOffset * 1000L;
+        long epochDay = Math.floorDiv(movedLocal, MILLIS_PER_DAY);
+        switch(unit){
+            case HOURS:
+                return toEpochMillis(Math.floorDiv(movedLocal, MILLIS_PER_HOUR) * MILLIS_PER_HOUR, movedOffset);
+            case DAYS:
+                return toEpochMillis(epochDay * MILLIS_PER_DAY, movedOffset);
+            case WEEKS:
+                // with(DayOfWeek.MONDAY) keeps the time of day. 1970-01-01 is Thursday
+                return toEpochMillis(movedLocal - Math.floorMod(epochDay + 3, 7) * MILLIS_PER_DAY, movedOffset);
+            default:
+                // withDayOfMonth(1) keeps the time of day
+                return toEpochMillis(movedLocal - (epochDay - CivilDate.firstDayOfMonth(epochDay)) * MILLIS_PER_DAY, movedOffset);
+        }
+    }
+
+    public List<LongTimeWindow> splitIntoHours(){
+        return splitInto(ChronoUnit.HOURS);
+    }
+
+    public List<LongTimeWindow> splitIntoDays(){
+        return splitInto(ChronoUnit.DAYS);
+    }
+
+    public List<LongTimeWindow> splitIntoWeeks(){
+        return splitInto(ChronoUnit.WEEKS);
+    }
+
+    public List<LongTimeWindow> splitIntoMonths(){
+        return splitInto(ChronoUnit.MONTHS);
+    }
+
+    @Override
+    public boolean equals(Object o){
+        if(this == o){
+            return true;
+        }
+        if(!(o instanceof LongTimeWindow)){
+            return false;
+        }
+        LongTimeWindow other = (LongTimeWindow) o;
+        return start == other.start && end == other.end && zone.equals(other.zone);
+    }
+
+    @Override
+    public int hashCode(){
+        return 31 * (31 * Long.hashCode(start) + Long.hashCode(end)) + zone.hashCode();
+    }
+
+    @Override
+    public String toString(){
+        String s = TimeStampFormatter.formatTimestamp(start, ZoneOffset.ofTotalSeconds(offsetSecondsAt(start)));
+        String e = TimeStampFormatter.formatTimestamp(end, ZoneOffset.ofTotalSeconds(offsetSecondsAt(end)));
+        return "[" + s + "," + e + ")";
+    }
+}
@@ -0,0 +1,126 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maps a time window to the keys of storage partitions laid out by time, e.g. <code>dt=2016-06-26/hr=01</code>.
+ * <p>
+ * The layout is a list of levels from coarse to fine, each of which is a {@link TimeWindowUnit} and a pattern
+ * of {@link DateTimeFormatter}. A partition which is fully covered by the window is given as the key of its level,
+ * and finer levels are used only at the edges of the window, so a range of days gives one key per day except the first
+ * and the last days. Keys are generated lazily in the order of time.
+ */
+public final class PartitionPlanner {
+
+    private final ZoneId zone;
+    private final TimeWindowUnit[] units;
+    private final DateTimeFormatter[] formatters;
+    private final String separator;
+
+    private PartitionPlanner(ZoneId zone, TimeWindowUnit[] units, DateTimeFormatter[] formatters, String separator) {
+        this.zone = zone;
+        this.units = units;
+        this.formatters = formatters;
+        this.separator = separator;
+    }
+
+    /**
+     * Creates a planner without levels. Partitions are in the given zone.
+     */
+    public static PartitionPlanner of(ZoneId zone) {
+        return new PartitionPlanner(zone, new TimeWindowUnit[0], new DateTimeFormatter[0], "/");
+    }
+
+    /**
+     * Creates a planner of the layout <code>dt=yyyy-MM-dd/hr=HH</code>.
+     */
+    public static PartitionPlanner dailyHourly(ZoneId zone) {
+        return of(zone).withLevel(TimeWindowUnit.Day, "'dt='yyyy-MM-dd").withLevel(TimeWindowUnit.Hour, "'hr='HH");
+    }
+
+    /**
+     * Adds a level finer than the existing levels. Each partition of the last level must be divided into whole
+     * partitions of the new level, e.g. days can be under a week or a month, but weeks can't be under a month.
+     */
+    public PartitionPlanner withLevel(TimeWindowUnit unit, String pattern) {
+        if (unit == TimeWindowUnit.BusinessDay) {
+            // A partition of a business day would cover the following non-business days
+            throw new IllegalArgumentException("BusinessDay can't be a partition level");
+        }
+        if (units.length > 0 && !divides(unit, units[units.length - 1])) {
+            throw new IllegalArgumentException("Level " + unit + " must divide " + units[units.length - 1]);
+        }
+        TimeWindowUnit[] newUnits = Arrays.copyOf(units, units.length + 1);
+        DateTimeFormatter[] newFormatters = Arrays.copyOf(formatters, formatters.length + 1);
+        newUnits[units.length] = unit;
+        newFormatters[formatters.length] = DateTimeFormatter.ofPattern(pattern);
+        return new PartitionPlanner(zone, newUnits, newFormatters, separator);
+    }
+
+    // True if every partition of the parent is a union of partitions of the child
+    private static boolean divides(TimeWindowUnit child, TimeWindowUnit parent) {
+        switch (child) {
+            case Second:
+                return parent != TimeWindowUnit.Second;
+            case Minute:
+                return parent != TimeWindowUnit.Second && parent != TimeWindowUnit.Minute;
+            case Hour:
+                return divides(TimeWindowUnit.Day, parent) || parent == TimeWindowUnit.Day;
+            case Day:
+                return parent == TimeWindowUnit.Week || divides(TimeWindowUnit.Month, parent) || parent == TimeWindowUnit.Month;
+            case Month:
+                return parent == TimeWindowUnit.Quarter || parent == TimeWindowUnit.Year;
+            case Quarter:
+                return parent == TimeWindowUnit.Year;
+            default:
+                // A week crosses months and years
+                return false;
+        }
+    }
+
+    public PartitionPlanner withSeparator(String separator) {
+        return new PartitionPlanner(zone, units, formatters, separator);
+    }
+
+    /**
+     * Returns the keys of the partitions which intersect with the window.
+     */
+    public Stream<String> plan(TimeWindow window) {
+        if (units.length == 0) {
+            throw new IllegalStateException("No partition level");
+        }
+        TimeWindow w = new TimeWindow(window.getStart().withZoneSameInstant(zone), window.getEnd().withZoneSameInstant(zone));
+        return plan(w, 0, "");
+    }
+
+    public Stream<String> plan(String expression, TimeWindowBuilder builder) {
+        return plan(builder.parse(expression));
+    }
+
+    private Stream<String> plan(TimeWindow window, int level, String prefix) {
+        TimeWindowUnit unit = units[level];
+        boolean finest = level == units.length - 1;
+        return window.stream(unit, 1).flatMap(sub -> {
+            ZonedDateTime cellStart = unit.truncate(sub.getStart());
+            String key = prefix + formatters[level].format(cellStart);
+            if (finest || isFull(sub, cellStart, unit)) {
+                return Stream.of(key);
+            }
+            return plan(sub, level + 1, key + separator);
+        });
+    }
+
+    private static boolean isFull(TimeWindow sub, ZonedDateTime cellStart, TimeWindowUnit unit) {
+        return sub.getStart().isEqual(cellStart) && sub.getEnd().isEqual(unit.increment(cellStart, 1));
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.stream(formatters).map(DateTimeFormatter::toString).collect(Collectors.joining(separator));
+    }
+}
@@ -0,0 +1,225 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A window which recurs every period of a {@link TimeWindowUnit}, e.g. every day from 02:00 to 04:00 or every Monday
+ * from 09:00 to 10:00. An occurrence starts at a fixed local time offset from the start of each period.
+ * <p>
+ * The occurrence around a time is found from the grid of the period by {@link TimeWindowUnit#truncateMillis(long, ZoneId, BusinessCalendar)},
+ * so lookups take constant time without iterating periods. Instances are immutable and thread-safe.
+ */
+public final class RecurringWindow {
+
+    private final TimeWindowUnit period;
+    private final long offsetMillis;
+    private final long lengthMillis;
+    private final ZoneId zone;
+    private final BusinessCalendar calendar;
+    // Null if the zone is a fixed offset
+    private final ZoneTransitions transitions;
+
+    private RecurringWindow(TimeWindowUnit period, long offsetMillis, long lengthMillis, ZoneId zone, BusinessCalendar calendar) {
+        long minPeriodMillis = minPeriodMillis(period);
+        if (offsetMillis < 0 || offsetMillis >= minPeriodMillis) {
+            throw new IllegalArgumentException("Invalid offset " + offsetMillis + "ms in " + period);
+        }
+        if (lengthMillis <= 0 || lengthMillis > minPeriodMillis) {
+            throw new IllegalArgumentException("Invalid length " + lengthMillis + "ms in " + period);
+        }
+        this.period = period;
+        this.offsetMillis = offsetMillis;
+        this.lengthMillis = lengthMillis;
+        this.zone = zone.normalized();
+        this.calendar = calendar;
+        this.transitions = (this.zone instanceof ZoneOffset) ? null : ZoneRegistry.transitionsOf(this.zone);
+    }
+
+    /**
+     * Creates a window which starts at <code>offset</code> from the start of every period. The offset and the length
+     * are on the local time line, e.g. a window from 02:00 to 04:00 is 2 hours long even on a day of a transition.
+     */
+    public static RecurringWindow every(TimeWindowUnit period, Duration offset, Duration length, ZoneId zone) {
+        return new RecurringWindow(period, offset.toMillis(), length.toMillis(), zone, BusinessCalendar.WEEKDAYS);
+    }
+
+    /**
+     * Creates a window from <code>start</code> to <code>end</code> every day. If the end is not after the start,
+     * the window ends on the next day.
+     */
+    public static RecurringWindow daily(LocalTime start, LocalTime end, ZoneId zone) {
+        return new RecurringWindow(TimeWindowUnit.Day, millisOfDay(start), lengthMillis(start, end), zone, BusinessCalendar.WEEKDAYS);
+    }
+
+    public static RecurringWindow weekly(DayOfWeek day, LocalTime start, LocalTime end, ZoneId zone) {
+        long offset = (day.getValue() - 1) * CivilDate.MILLIS_PER_DAY + millisOfDay(start);
+        return new RecurringWindow(TimeWindowUnit.Week, offset, lengthMillis(start, end), zone, BusinessCalendar.WEEKDAYS);
+    }
+
+    private static long millisOfDay(LocalTime time) {
+        return time.toNanoOfDay() / 1000_000;
+    }
+
+    private static long lengthMillis(LocalTime start, LocalTime end) {
+        long length = millisOfDay(end) - millisOfDay(start);
+        return (length > 0) ? length : length + CivilDate.MILLIS_PER_DAY;
+    }
+
+    // The shortest length of the period on the local time line
+    private static long minPeriodMillis(TimeWindowUnit period) {
+        switch (period) {
+            case BusinessDay:
+                return CivilDate.MILLIS_PER_DAY;
+            case Month:
+                return 28 * CivilDate.MILLIS_PER_DAY;
+            case Quarter:
+                return 90 * CivilDate.MILLIS_PER_DAY;
+            case Year:
+                return 365 * CivilDate.MILLIS_PER_DAY;
+            default:
+                return period.fixedMillis();
+        }
+    }
+
+    /**
+     * Sets the calendar of {@link TimeWindowUnit#BusinessDay} periods, which is {@link BusinessCalendar#WEEKDAYS}
+     * by default.
+     */
+    public RecurringWindow withCalendar(BusinessCalendar calendar) {
+        return new RecurringWindow(period, offsetMillis, lengthMillis, zone, calendar);
+    }
+
+    public TimeWindowUnit getPeriod() {
+        return period;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Returns true if an occurrence contains the given time. This doesn't allocate.
+     */
+    public boolean contains(long epochMillis) {
+        return epochMillis < endOf(gridAtOrBefore(epochMillis));
+    }
+
+    /**
+     * Returns the occurrence which contains the given time, or null if there is no such occurrence.
+     */
+    public TimeWindow containing(long epochMillis) {
+        long grid = gridAtOrBefore(epochMillis);
+        return (epochMillis < endOf(grid)) ? occurrence(grid) : null;
+    }
+
+    public TimeWindow containing(ZonedDateTime t) {
+        return containing(TimeWindow.toEpochMillis(t));
+    }
+
+    /**
+     * Returns the first occurrence which starts after the given time.
+     */
+    public TimeWindow nextAfter(long epochMillis) {
+        return occurrence(next(gridAtOrBefore(epochMillis)));
+    }
+
+    public TimeWindow nextAfter(ZonedDateTime t) {
+        return nextAfter(TimeWindow.toEpochMillis(t));
+    }
+
+    /**
+     * Returns the start of the first occurrence after the given time in epoch millis, which doesn't allocate.
+     */
+    public long nextStartAfter(long epochMillis) {
+        return startOf(next(gridAtOrBefore(epochMillis)));
+    }
+
+    /**
+     * Returns the last occurrence which ends at or before the given time.
+     */
+    public TimeWindow previousBefore(long epochMillis) {
+        long grid = gridAtOrBefore(epochMillis);
+        return occurrence((endOf(grid) <= epochMillis) ? grid : period.incrementMillis(grid, -1, zone, calendar));
+    }
+
+    public TimeWindow previousBefore(ZonedDateTime t) {
+        return previousBefore(TimeWindow.toEpochMillis(t));
+    }
+
+    /**
+     * Returns a lazy stream of the occurrences which intersect with the window. Occurrences are not clipped by the window.
+     */
+    public Stream<TimeWindow> occurrencesIn(TimeWindow window) {
+        long start = window.startEpochMillis();
+        long end = window.endEpochMillis();
+        long first = gridAtOrBefore(start);
+        long from = (endOf(first) <= start) ? next(first) : first;
+        Spliterator<TimeWindow> spliterator = new Spliterators.AbstractSpliterator<TimeWindow>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE) {
+            private long grid = from;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super TimeWindow> action) {
+                if (startOf(grid) >= end) {
+                    return false;
+                }
+                action.accept(occurrence(grid));
+                grid = next(grid);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    // The grid of the last occurrence which starts at or before the given time
+    private long gridAtOrBefore(long epochMillis) {
+        long grid = period.truncateMillis(epochMillis, zone, calendar);
+        return (startOf(grid) <= epochMillis) ? grid : period.incrementMillis(grid, -1, zone, calendar);
+    }
+
+    private long next(long grid) {
+        return period.incrementMillis(grid, 1, zone, calendar);
+    }
+
+    private long startOf(long grid) {
+        return shift(grid, offsetMillis);
+    }
+
+    private long endOf(long grid) {
+        return shift(grid, offsetMillis + lengthMillis);
+    }
+
+    // Adds the duration to the grid on the local time line
+    private long shift(long grid, long millis) {
+        if (transitions == null) {
+            return grid + millis;
+        }
+        int offsetSeconds = transitions.offsetSecondsAt(grid);
+        return transitions.localToEpochMillis(grid + offsetSeconds * 1000L + millis, offsetSeconds);
+    }
+
+    private TimeWindow occurrence(long grid) {
+        return new TimeWindow(toZonedDateTime(startOf(grid)), toZonedDateTime(endOf(grid)));
+    }
+
+    private ZonedDateTime toZonedDateTime(long epochMillis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+
+    @Override
+    public String toString() {
+        return "RecurringWindow(every " + period + " at " + Duration.ofMillis(offsetMillis) + " for "
+                + Duration.ofMillis(lengthMillis) + " in " + zone + ")";
+    }
+}
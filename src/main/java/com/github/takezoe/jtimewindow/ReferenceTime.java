@@ -0,0 +1,36 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The current time pinned for evaluating multiple expressions. The truncated grid of each unit
+ * is computed once and shared across expressions. This is not thread-safe.
+ */
+final class ReferenceTime {
+
+    private final ZonedDateTime now;
+    private final BusinessCalendar calendar;
+    private final ZonedDateTime[] grids = new ZonedDateTime[TimeWindowUnit.values().length];
+
+    ReferenceTime(ZonedDateTime now, BusinessCalendar calendar) {
+        this.now = now;
+        this.calendar = calendar;
+    }
+
+    ZonedDateTime now() {
+        return now;
+    }
+
+    BusinessCalendar calendar() {
+        return calendar;
+    }
+
+    ZonedDateTime grid(TimeWindowUnit unit) {
+        ZonedDateTime grid = grids[unit.ordinal()];
+        if (grid == null) {
+            grid = unit.truncate(now, calendar);
+            grids[unit.ordinal()] = grid;
+        }
+        return grid;
+    }
+}
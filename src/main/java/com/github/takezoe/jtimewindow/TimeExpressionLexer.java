@@ -0,0 +1,211 @@
+package com.github.takezoe.jtimewindow;
+
+/**
+ * Single-pass scanner for time window expressions such as <code>-1M/-1y/2016-10-01)</code>.
+ * Each '/' separated token is classified without regular expressions or exceptions.
+ */
+final class TimeExpressionLexer {
+
+    enum TokenType {
+        KEYWORD, DURATION, NOW, DATE, INVALID
+    }
+
+    private static final String[] keywords = {
+        "thisHour", "today", "thisWeek", "thisMonth", "thisYear",
+        "lastHour", "yesterday", "lastWeek", "lastMonth", "lastYear",
+        "nextHour", "tomorrow", "nextWeek", "nextMonth", "nextYear"
+    };
+
+    private static final TimeVector[] keywordVectors = {
+        new TimeVector(-1, 1, TimeWindowUnit.Hour),
+        new TimeVector(-1, 1, TimeWindowUnit.Day),
+        new TimeVector(-1, 1, TimeWindowUnit.Week),
+        new TimeVector(-1, 1, TimeWindowUnit.Month),
+        new TimeVector(-1, 1, TimeWindowUnit.Year),
+        new TimeVector(-1, 0, TimeWindowUnit.Hour),
+        new TimeVector(-1, 0, TimeWindowUnit.Day),
+        new TimeVector(-1, 0, TimeWindowUnit.Week),
+        new TimeVector(-1, 0, TimeWindowUnit.Month),
+        new TimeVector(-1, 0, TimeWindowUnit.Year),
+        new TimeVector(1, 1, TimeWindowUnit.Hour),
+        new TimeVector(1, 1, TimeWindowUnit.Day),
+        new TimeVector(1, 1, TimeWindowUnit.Week),
+        new TimeVector(1, 1, TimeWindowUnit.Month),
+        new TimeVector(1, 1, TimeWindowUnit.Year)
+    };
+
+    private final String input;
+    private int position;
+
+    private TokenType type;
+    private TimeVector vector;
+    private int tokenStart;
+    private int tokenEnd;
+    private boolean untruncated;
+
+    TimeExpressionLexer(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Reads the range duration, which continues until the first '/'.
+     * Returns false if the expression has no duration.
+     */
+    boolean readRange() {
+        int slash = input.indexOf('/');
+        int end = (slash < 0) ? input.length() : slash;
+        if (end == 0) {
+            return false;
+        }
+        classify(0, end, false);
+        position = (slash < 0) ? -1 : slash + 1;
+        return true;
+    }
+
+    boolean hasOffset() {
+        return position >= 0;
+    }
+
+    /**
+     * Reads the next offset token. Returns true if it is an adjustment followed by another offset,
+     * or false if it is the last one.
+     */
+    boolean readOffset() {
+        int slash = input.indexOf('/', position);
+        if (slash > position && slash < input.length() - 1) {
+            classify(position, slash, false);
+            position = slash + 1;
+            return true;
+        }
+        classify(position, input.length(), true);
+        position = input.length();
+        return false;
+    }
+
+    TokenType type() {
+        return type;
+    }
+
+    TimeVector vector() {
+        return vector;
+    }
+
+    String text() {
+        return input.substring(tokenStart, tokenEnd);
+    }
+
+    /**
+     * Returns true if the date token ends with ')', which means the offset should not be truncated.
+     */
+    boolean isUntruncated() {
+        return untruncated;
+    }
+
+    private void classify(int from, int to, boolean last) {
+        tokenStart = from;
+        tokenEnd = to;
+        untruncated = false;
+        vector = null;
+
+        if (last && to - from == 3 && input.startsWith("now", from)) {
+            type = TokenType.NOW;
+            return;
+        }
+        vector = keyword(input, from, to);
+        if (vector != null) {
+            type = TokenType.KEYWORD;
+            return;
+        }
+        vector = duration(input, from, to);
+        if (vector != null) {
+            type = TokenType.DURATION;
+            return;
+        }
+        if (last) {
+            type = TokenType.DATE;
+            if (to > from && input.charAt(to - 1) == ')') {
+                tokenEnd = to - 1;
+                untruncated = true;
+            }
+        } else {
+            type = TokenType.INVALID;
+        }
+    }
+
+    /**
+     * Returns the time vector of a keyword or a duration in the given range, or null if it is neither.
+     */
+    static TimeVector vectorOf(CharSequence s, int from, int to) {
+        TimeVector v = keyword(s, from, to);
+        if (v != null) {
+            return v;
+        }
+        return duration(s, from, to);
+    }
+
+    private static TimeVector keyword(CharSequence s, int from, int to) {
+        int length = to - from;
+        for (int i = 0; i < keywords.length; i++) {
+            String keyword = keywords[i];
+            if (keyword.length() == length && regionMatches(s, from, keyword)) {
+                return keywordVectors[i];
+            }
+        }
+        return null;
+    }
+
+    // DURATION := (+ | - | last | next)?(INTEGER)(UNIT), anything after the unit is ignored
+    private static TimeVector duration(CharSequence s, int from, int to) {
+        int i = from;
+        long sign = 1;
+        if (i < to) {
+            char c = s.charAt(i);
+            if (c == '+') {
+                i++;
+            } else if (c == '-') {
+                sign = -1;
+                i++;
+            } else if (to - i >= 4 && regionMatches(s, i, "last")) {
+                sign = -1;
+                i += 4;
+            } else if (to - i >= 4 && regionMatches(s, i, "next")) {
+                i += 4;
+            }
+        }
+
+        int digitsStart = i;
+        long length = 0;
+        while (i < to) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            length = length * 10 + (c - '0');
+            if (length > Integer.MAX_VALUE) {
+                return null;
+            }
+            i++;
+        }
+        if (i == digitsStart || i == to) {
+            return null;
+        }
+
+        TimeWindowUnit unit = TimeWindowUnit.of(s.charAt(i));
+        if (unit == null) {
+            return null;
+        }
+        return new TimeVector(sign * length, 0, unit);
+    }
+
+    private static boolean regionMatches(CharSequence s, int from, String str) {
+        if (from + str.length() > s.length()) {
+            return false;
+        }
+        for (int i = 0; i < str.length(); i++) {
+            if (s.charAt(from + i) != str.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
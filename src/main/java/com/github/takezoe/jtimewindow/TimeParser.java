@@ -16,28 +16,106 @@ public class TimeParser {
         DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss[.SSS][ z][XXXXX][XXXX]['['VV']']")
     );
 
+    // Shapes of date time strings, used to pick the formatter without trial and error
+    private static final int UNKNOWN = 0;
+    private static final int LOCAL_DATE = 1;
+    private static final int LOCAL_DATE_TIME = 2;
+    private static final int ZONED_DATE_TIME = 3;
+    private static final int ZONED_ISO_DATE_TIME = 4;
+
     public static ZonedDateTime parseLocalDateTime(String s, ZoneOffset zone) {
-        try {
-            LocalDateTime d = LocalDateTime.parse(s, localDateTimePattern);
-            return ZonedDateTime.of(d, zone);
-        } catch (Exception e1) {
-            try {
-                LocalDate d = LocalDate.parse(s, localDatePattern);
-                return d.atStartOfDay(zone);
-            } catch (Exception e2) {
+        LocalDateTime d = parseLocalDateTime(s);
+        if (d == null) {
+            return null;
+        }
+        return ZonedDateTime.of(d, zone);
+    }
+
+    public static LocalDateTime parseLocalDateTime(String s) {
+        switch (shapeOf(s)) {
+            case LOCAL_DATE:
+                try {
+                    return LocalDate.parse(s, localDatePattern).atStartOfDay();
+                } catch (Exception e) {
+                    return null;
+                }
+            case LOCAL_DATE_TIME:
+                try {
+                    return LocalDateTime.parse(s, localDateTimePattern);
+                } catch (Exception e) {
+                    return null;
+                }
+            case UNKNOWN:
+                try {
+                    return LocalDateTime.parse(s, localDateTimePattern);
+                } catch (Exception e1) {
+                    try {
+                        return LocalDate.parse(s, localDatePattern).atStartOfDay();
+                    } catch (Exception e2) {
+                        return null;
+                    }
+                }
+            default:
                 return null;
-            }
         }
     }
 
     public static ZonedDateTime parseZonedDateTime(String s) {
-        for(DateTimeFormatter formatter: zonedDateTimePatterns) {
-            try {
-                return ZonedDateTime.parse(s, formatter);
-            } catch (Exception ex) {
+        switch (shapeOf(s)) {
+            case ZONED_DATE_TIME:
+                return parseZonedDateTime(s, zonedDateTimePatterns.get(0));
+            case ZONED_ISO_DATE_TIME:
+                return parseZonedDateTime(s, zonedDateTimePatterns.get(1));
+            case UNKNOWN:
+                for(DateTimeFormatter formatter: zonedDateTimePatterns) {
+                    ZonedDateTime d = parseZonedDateTime(s, formatter);
+                    if (d != null) {
+                        return d;
+                    }
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private static ZonedDateTime parseZonedDateTime(String s, DateTimeFormatter formatter) {
+        try {
+            return ZonedDateTime.parse(s, formatter);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    // yyyy-MM-dd[( |T)HH:mm:ss[.SSS][zone]]
+    private static int shapeOf(String s) {
+        int length = s.length();
+        if (length < 10 || !isDigits(s, 0, 4) || s.charAt(4) != '-' || !isDigits(s, 5, 7)
+                || s.charAt(7) != '-' || !isDigits(s, 8, 10)) {
+            return UNKNOWN;
+        }
+        if (length == 10) {
+            return LOCAL_DATE;
+        }
+        char separator = s.charAt(10);
+        if (length < 19 || (separator != ' ' && separator != 'T') || !isDigits(s, 11, 13) || s.charAt(13) != ':'
+                || !isDigits(s, 14, 16) || s.charAt(16) != ':' || !isDigits(s, 17, 19)) {
+            return UNKNOWN;
+        }
+        if (separator == ' ' && (length == 19 || (length == 23 && s.charAt(19) == '.' && isDigits(s, 20, 23)))) {
+            return LOCAL_DATE_TIME;
+        }
+        return (separator == ' ') ? ZONED_DATE_TIME : ZONED_ISO_DATE_TIME;
+    }
+
+    private static boolean isDigits(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
             }
         }
-        return null;
+        return true;
     }
 
     public static ZonedDateTime parseAtLocalTimeZone(String s)
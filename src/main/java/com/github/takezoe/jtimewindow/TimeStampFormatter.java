@@ -1,5 +1,6 @@
 package com.github.takezoe.jtimewindow;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -49,19 +50,275 @@ public class TimeStampFormatter {
             .appendOffset("+HHMM", "Z")
             .toFormatter(Locale.US);
 
+    private static final DateTimeFormatter humanReadableTimestampWithMillisFormatter = new DateTimeFormatterBuilder()
+            .appendValue(YEAR, 4, 10, SignStyle.EXCEEDS_PAD)
+            .appendLiteral('-')
+            .appendValue(MONTH_OF_YEAR, 2)
+            .appendLiteral('-')
+            .appendValue(DAY_OF_MONTH, 2)
+            .appendLiteral(' ')
+            .appendValue(HOUR_OF_DAY, 2)
+            .appendLiteral(':')
+            .appendValue(MINUTE_OF_HOUR, 2)
+            .appendLiteral(':')
+            .appendValue(SECOND_OF_MINUTE, 2)
+            .appendLiteral('.')
+            .appendValue(MILLI_OF_SECOND, 3)
+            .appendOffset("+HHMM", "Z")
+            .toFormatter(Locale.US);
+
+    private static final boolean subMinuteOffsetIsZ = new DateTimeFormatterBuilder()
+            .appendOffset("+HHMM", "Z")
+            .toFormatter(Locale.US)
+            .format(ZoneOffset.ofTotalSeconds(1))
+            .equals("Z");
+
+    /**
+     * Formatted date time and offset of the last second formatted by the thread. Timestamps within the same second
+     * only copy these characters, and the characters are rewritten in place for another second, so formatting
+     * doesn't allocate except for years which don't fit in 4 digits.
+     */
+    private static final class CachedSecond {
+        long epochSecond = Long.MIN_VALUE;
+        int offsetSeconds;
+        // yyyy-MM-dd HH:mm:ss
+        final char[] dateTime = new char[DATE_TIME_LENGTH];
+        // +HHMM or Z
+        final char[] offset = new char[5];
+        int offsetLength;
+    }
+
+    private static final int DATE_TIME_LENGTH = 19;
+
+    private static final ThreadLocal<CachedSecond> cachedSecond = ThreadLocal.withInitial(CachedSecond::new);
+
     public static String formatTimestamp(ZonedDateTime time)
     {
-        return humanReadableTimestampFormatter.format(time);
+        if (!isFastPathYear(time.getYear())) {
+            return humanReadableTimestampFormatter.format(time);
+        }
+        StringBuilder sb = new StringBuilder(24);
+        formatTimestamp(TimeWindow.toEpochMillis(time), time.getOffset(), sb);
+        return sb.toString();
     }
 
     public static String formatTimestamp(long timeMillis, ZoneOffset zone) {
-        ZonedDateTime timestamp = ZonedDateTime.ofInstant(Instant.ofEpochMilli(timeMillis), zone);
-        return humanReadableTimestampFormatter.format(timestamp);
+        StringBuilder sb = new StringBuilder(24);
+        formatTimestamp(timeMillis, zone, sb);
+        return sb.toString();
     }
 
     public static String formatTimestampWithNoSpace(long timeMillis) {
-        ZonedDateTime timestamp = ZonedDateTime.ofInstant(Instant.ofEpochMilli(timeMillis), Constants.SystemTimeZone);
-        return noSpaceTimestampFormat.format(timestamp);
+        return formatTimestampWithNoSpace(timeMillis, Constants.SystemTimeZone);
+    }
+
+    public static String formatTimestampWithNoSpace(long timeMillis, ZoneOffset zone) {
+        StringBuilder sb = new StringBuilder(28);
+        formatTimestampWithNoSpace(timeMillis, zone, sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the timestamp in <code>yyyy-MM-dd HH:mm:ss+HHMM</code> format.
+     */
+    public static void formatTimestamp(long timeMillis, ZoneOffset zone, StringBuilder out) {
+        CachedSecond c = cachedSecond(timeMillis, zone);
+        if (c == null) {
+            out.append(humanReadableTimestampFormatter.format(toZonedDateTime(timeMillis, zone)));
+            return;
+        }
+        out.append(c.dateTime).append(c.offset, 0, c.offsetLength);
+    }
+
+    /**
+     * Appends the timestamp in <code>yyyy-MM-dd HH:mm:ss.SSS+HHMM</code> format if <code>withMillis</code> is true,
+     * or in <code>yyyy-MM-dd HH:mm:ss+HHMM</code> format otherwise.
+     */
+    public static void formatTimestamp(long timeMillis, ZoneOffset zone, boolean withMillis, StringBuilder out) {
+        if (!withMillis) {
+            formatTimestamp(timeMillis, zone, out);
+            return;
+        }
+        CachedSecond c = cachedSecond(timeMillis, zone);
+        if (c == null) {
+            out.append(humanReadableTimestampWithMillisFormatter.format(toZonedDateTime(timeMillis, zone)));
+            return;
+        }
+        appendMillis(out.append(c.dateTime), timeMillis).append(c.offset, 0, c.offsetLength);
+    }
+
+    /**
+     * Writes the timestamp in <code>yyyy-MM-dd HH:mm:ss+HHMM</code> format, and returns the number of written characters.
+     */
+    public static int formatTimestamp(long timeMillis, ZoneOffset zone, char[] buffer, int offset) {
+        CachedSecond c = cachedSecond(timeMillis, zone);
+        if (c == null) {
+            return copy(humanReadableTimestampFormatter.format(toZonedDateTime(timeMillis, zone)), buffer, offset);
+        }
+        System.arraycopy(c.dateTime, 0, buffer, offset, DATE_TIME_LENGTH);
+        System.arraycopy(c.offset, 0, buffer, offset + DATE_TIME_LENGTH, c.offsetLength);
+        return DATE_TIME_LENGTH + c.offsetLength;
+    }
+
+    /**
+     * Puts the timestamp in <code>yyyy-MM-dd HH:mm:ss+HHMM</code> format as ASCII, and returns the number of written bytes.
+     */
+    public static int formatTimestamp(long timeMillis, ZoneOffset zone, ByteBuffer buffer) {
+        CachedSecond c = cachedSecond(timeMillis, zone);
+        if (c == null) {
+            return put(humanReadableTimestampFormatter.format(toZonedDateTime(timeMillis, zone)), buffer);
+        }
+        put(c.dateTime, DATE_TIME_LENGTH, buffer);
+        put(c.offset, c.offsetLength, buffer);
+        return DATE_TIME_LENGTH + c.offsetLength;
+    }
+
+    /**
+     * Appends the timestamp in <code>yyyy-MM-dd'T'HH:mm:ss.SSS+HHMM</code> format.
+     */
+    public static void formatTimestampWithNoSpace(long timeMillis, ZoneOffset zone, StringBuilder out) {
+        CachedSecond c = cachedSecond(timeMillis, zone);
+        if (c == null) {
+            out.append(noSpaceTimestampFormat.format(toZonedDateTime(timeMillis, zone)));
+            return;
+        }
+        out.append(c.dateTime, 0, 10).append('T').append(c.dateTime, 11, DATE_TIME_LENGTH - 11);
+        appendMillis(out, timeMillis).append(c.offset, 0, c.offsetLength);
+    }
+
+    // Appends .SSS
+    private static StringBuilder appendMillis(StringBuilder out, long timeMillis) {
+        int millis = (int) Math.floorMod(timeMillis, 1000L);
+        return out.append('.').append((char) ('0' + millis / 100)).append((char) ('0' + millis / 10 % 10))
+            .append((char) ('0' + millis % 10));
+    }
+
+    /**
+     * Writes the timestamp in <code>yyyy-MM-dd'T'HH:mm:ss.SSS+HHMM</code> format, and returns the number of written characters.
+     */
+    public static int formatTimestampWithNoSpace(long timeMillis, ZoneOffset zone, char[] buffer, int offset) {
+        CachedSecond c = cachedSecond(timeMillis, zone);
+        if (c == null) {
+            return copy(noSpaceTimestampFormat.format(toZonedDateTime(timeMillis, zone)), buffer, offset);
+        }
+        int millis = (int) Math.floorMod(timeMillis, 1000L);
+        int i = offset;
+        System.arraycopy(c.dateTime, 0, buffer, i, DATE_TIME_LENGTH);
+        buffer[i + 10] = 'T';
+        i += DATE_TIME_LENGTH;
+        buffer[i++] = '.';
+        buffer[i++] = (char) ('0' + millis / 100);
+        buffer[i++] = (char) ('0' + millis / 10 % 10);
+        buffer[i++] = (char) ('0' + millis % 10);
+        System.arraycopy(c.offset, 0, buffer, i, c.offsetLength);
+        return i + c.offsetLength - offset;
+    }
+
+    /**
+     * Puts the timestamp in <code>yyyy-MM-dd'T'HH:mm:ss.SSS+HHMM</code> format as ASCII, and returns the number of written bytes.
+     */
+    public static int formatTimestampWithNoSpace(long timeMillis, ZoneOffset zone, ByteBuffer buffer) {
+        CachedSecond c = cachedSecond(timeMillis, zone);
+        if (c == null) {
+            return put(noSpaceTimestampFormat.format(toZonedDateTime(timeMillis, zone)), buffer);
+        }
+        int millis = (int) Math.floorMod(timeMillis, 1000L);
+        for (int i = 0; i < DATE_TIME_LENGTH; i++) {
+            buffer.put((byte) (i == 10 ? 'T' : c.dateTime[i]));
+        }
+        buffer.put((byte) '.');
+        buffer.put((byte) ('0' + millis / 100));
+        buffer.put((byte) ('0' + millis / 10 % 10));
+        buffer.put((byte) ('0' + millis % 10));
+        put(c.offset, c.offsetLength, buffer);
+        return DATE_TIME_LENGTH + 4 + c.offsetLength;
+    }
+
+    // Returns null if the year can't be formatted in 4 digits
+    private static CachedSecond cachedSecond(long timeMillis, ZoneOffset zone) {
+        long epochSecond = Math.floorDiv(timeMillis, 1000L);
+        int offsetSeconds = zone.getTotalSeconds();
+        CachedSecond c = cachedSecond.get();
+        if (c.epochSecond == epochSecond && c.offsetSeconds == offsetSeconds) {
+            return c;
+        }
+
+        long localSecond = epochSecond + offsetSeconds;
+        long epochDay = Math.floorDiv(localSecond, 86400L);
+        int secondOfDay = (int) (localSecond - epochDay * 86400L);
+        long date = CivilDate.fromEpochDay(epochDay);
+        long year = CivilDate.year(date);
+        if (!isFastPathYear(year)) {
+            return null;
+        }
+
+        char[] dateTime = c.dateTime;
+        writeDigits(dateTime, 0, (int) year, 4);
+        dateTime[4] = '-';
+        writeDigits(dateTime, 5, CivilDate.month(date), 2);
+        dateTime[7] = '-';
+        writeDigits(dateTime, 8, CivilDate.day(date), 2);
+        dateTime[10] = ' ';
+        writeDigits(dateTime, 11, secondOfDay / 3600, 2);
+        dateTime[13] = ':';
+        writeDigits(dateTime, 14, secondOfDay / 60 % 60, 2);
+        dateTime[16] = ':';
+        writeDigits(dateTime, 17, secondOfDay % 60, 2);
+        if (c.epochSecond == Long.MIN_VALUE || c.offsetSeconds != offsetSeconds) {
+            c.offsetLength = formatOffset(offsetSeconds, c.offset);
+        }
+        c.epochSecond = epochSecond;
+        c.offsetSeconds = offsetSeconds;
+        return c;
+    }
+
+    // Same as appendOffset("+HHMM", "Z"), which ignores seconds of the offset. 'Z' is written for a zero offset, and
+    // a nonzero offset under a minute is written as the running JDK does ("+0000" on Java 8, 'Z' on later versions)
+    private static int formatOffset(int offsetSeconds, char[] offset) {
+        int abs = Math.abs(offsetSeconds);
+        int hours = abs / 3600 % 100;
+        int minutes = abs / 60 % 60;
+        if (offsetSeconds == 0 || (hours == 0 && minutes == 0 && subMinuteOffsetIsZ)) {
+            offset[0] = 'Z';
+            return 1;
+        }
+        offset[0] = (offsetSeconds < 0) ? '-' : '+';
+        writeDigits(offset, 1, hours, 2);
+        writeDigits(offset, 3, minutes, 2);
+        return 5;
+    }
+
+    private static boolean isFastPathYear(long year) {
+        return 0 <= year && year <= 9999;
+    }
+
+    private static void writeDigits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static ZonedDateTime toZonedDateTime(long timeMillis, ZoneOffset zone) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(timeMillis), zone);
+    }
+
+    private static int copy(String s, char[] buffer, int offset) {
+        s.getChars(0, s.length(), buffer, offset);
+        return s.length();
+    }
+
+    private static int put(String s, ByteBuffer buffer) {
+        for (int i = 0; i < s.length(); i++) {
+            buffer.put((byte) s.charAt(i));
+        }
+        return s.length();
+    }
+
+    private static void put(char[] chars, int length, ByteBuffer buffer) {
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) chars[i]);
+        }
     }
 
 }
@@ -2,8 +2,6 @@ package com.github.takezoe.jtimewindow;
 
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Port of airframe-metrics
@@ -14,57 +12,18 @@ public class TimeVector {
     private final long offset;
     private final TimeWindowUnit unit;
 
-    private TimeVector(long duration, long offset, TimeWindowUnit unit) {
+    TimeVector(long duration, long offset, TimeWindowUnit unit) {
         this.duration = duration;
         this.offset = offset;
         this.unit = unit;
     }
 
-    private static final Pattern durationPattern = Pattern.compile("^(?<prefix>[+-]|last|next)?(?<num>[0-9]+)(?<unit>s|m|d|h|w|M|q|y)");
-
     public static TimeVector of(String s) {
-        switch(s) {
-            case "thisHour" : return new TimeVector(-1, 1, TimeWindowUnit.Hour);
-            case "today"    : return new TimeVector(-1, 1, TimeWindowUnit.Day);
-            case "thisWeek" : return new TimeVector(-1, 1, TimeWindowUnit.Week);
-            case "thisMonth": return new TimeVector(-1, 1, TimeWindowUnit.Month);
-            case "thisYear" : return new TimeVector(-1, 1, TimeWindowUnit.Year);
-            case "lastHour" : return new TimeVector(-1, 0, TimeWindowUnit.Hour);
-            case "yesterday": return new TimeVector(-1, 0, TimeWindowUnit.Day);
-            case "lastWeek" : return new TimeVector(-1, 0, TimeWindowUnit.Week);
-            case "lastMonth": return new TimeVector(-1, 0, TimeWindowUnit.Month);
-            case "lastYear" : return new TimeVector(-1, 0, TimeWindowUnit.Year);
-            case "nextHour" : return new TimeVector(1, 1, TimeWindowUnit.Hour);
-            case "tomorrow" : return new TimeVector(1, 1, TimeWindowUnit.Day);
-            case "nextWeek" : return new TimeVector(1, 1, TimeWindowUnit.Week);
-            case "nextMonth": return new TimeVector(1, 1, TimeWindowUnit.Month);
-            case "nextYear" : return new TimeVector(1, 1, TimeWindowUnit.Year);
-            default:
-                Matcher m = durationPattern.matcher(s);
-                if(m.find()){
-                    long length = Integer.parseInt(m.group("num"));
-                    TimeWindowUnit unit = TimeWindowUnit.of(m.group("unit"));
-                    String prefix = m.group("prefix");
-                    if(prefix == null){
-                        return new TimeVector(length, 0, unit);
-                    }
-                    switch(prefix){
-                        case "-":
-                            return new TimeVector(-1 * length, 0, unit);
-                        case "last":
-                            return new TimeVector(-1 * length, 0, unit);
-                        case "+":
-                            return new TimeVector(length, 0, unit);
-                        case "next":
-                            return new TimeVector(length, 0, unit);
-                        default:
-                            throw new IllegalArgumentException("Unknown duration prefix: " + prefix);
-                    }
-                } else {
-                    throw new IllegalArgumentException("Invalid duration: " + s);
-                }
+        TimeVector v = TimeExpressionLexer.vectorOf(s, 0, s.length());
+        if (v == null) {
+            throw new IllegalArgumentException("Invalid duration: " + s);
         }
-
+        return v;
     }
 
     public long getDuration(){
@@ -80,10 +39,21 @@ public class TimeVector {
     }
 
     public TimeWindow timeWindowFrom(ZonedDateTime context) {
-        ZonedDateTime grid = unit.truncate(context);
+        return timeWindowFrom(context, BusinessCalendar.WEEKDAYS);
+    }
+
+    /**
+     * Same as {@link #timeWindowFrom(ZonedDateTime)}, but business days are of the given calendar.
+     */
+    public TimeWindow timeWindowFrom(ZonedDateTime context, BusinessCalendar calendar) {
+        return timeWindowFrom(context, unit.truncate(context, calendar), calendar);
+    }
+
+    // The grid must be the context truncated by the unit of this vector
+    TimeWindow timeWindowFrom(ZonedDateTime context, ZonedDateTime grid, BusinessCalendar calendar) {
 
-        ZonedDateTime startOffset = unit.increment(grid, offset);
-        ZonedDateTime end         = unit.increment(startOffset, duration);
+        ZonedDateTime startOffset = unit.increment(grid, offset, calendar);
+        ZonedDateTime end         = unit.increment(startOffset, duration, calendar);
 
         boolean onGrid = grid.compareTo(context) == 0;
         ZonedDateTime start = null;
@@ -1,13 +1,18 @@
 package com.github.takezoe.jtimewindow;
 
+import java.io.Serializable;
 import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Port of airframe-metrics
  */
-public class TimeWindow {
+public class TimeWindow implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final ZonedDateTime start;
     private final ZonedDateTime end;
@@ -25,14 +30,6 @@ public class TimeWindow {
         return this.end;
     }
 
-    private Instant instantOfStart(){
-        return start.toInstant();
-    }
-
-    private Instant instantOfEnd(){
-        return end.toInstant();
-    }
-
     public long startUnixTime(){
         return start.toEpochSecond();
     }
@@ -42,24 +39,40 @@ public class TimeWindow {
     }
 
     public long startEpochMillis(){
-        return instantOfStart().toEpochMilli();
+        return toEpochMillis(start);
     }
 
     public long endEpochMillis(){
-        return instantOfEnd().toEpochMilli();
+        return toEpochMillis(end);
+    }
+
+    static long toEpochMillis(ZonedDateTime t){
+        return t.toEpochSecond() * 1000 + t.getNano() / 1000_000;
+    }
+
+    public LongTimeWindow toLongTimeWindow(){
+        return LongTimeWindow.of(this);
     }
 
     @Override
     public String toString(){
-        String s = TimeStampFormatter.formatTimestamp(start);
-        String e = TimeStampFormatter.formatTimestamp(end);
-        return "[" + s + "," + e + ")";
+        StringBuilder sb = new StringBuilder(51);
+        sb.append('[');
+        TimeStampFormatter.formatTimestamp(startEpochMillis(), start.getOffset(), sb);
+        sb.append(',');
+        TimeStampFormatter.formatTimestamp(endEpochMillis(), end.getOffset(), sb);
+        sb.append(')');
+        return sb.toString();
     }
 
     public String toStringAt(ZoneOffset zone){
-        String s = TimeStampFormatter.formatTimestamp(startEpochMillis(), zone);
-        String e = TimeStampFormatter.formatTimestamp(endEpochMillis(), zone);
-        return "[" + s + "," + e + ")";
+        StringBuilder sb = new StringBuilder(51);
+        sb.append('[');
+        TimeStampFormatter.formatTimestamp(startEpochMillis(), zone, sb);
+        sb.append(',');
+        TimeStampFormatter.formatTimestamp(endEpochMillis(), zone, sb);
+        sb.append(')');
+        return sb.toString();
     }
 
     private List<TimeWindow> splitInfo(ChronoUnit unit){
@@ -102,6 +115,72 @@ public class TimeWindow {
         return splitInfo(ChronoUnit.WEEKS);
     }
 
+    /**
+     * Splits this window into sub-windows of <code>step</code> units, aligned to the grid of the unit, i.e. weeks and
+     * months start at midnight unlike {@link #splitIntoWeeks()} and {@link #splitIntoMonths()}.
+     * The first and the last sub-windows are clipped by this window.
+     */
+    public List<TimeWindow> splitInto(TimeWindowUnit unit, long step){
+        return splitInto(unit, step, BusinessCalendar.WEEKDAYS);
+    }
+
+    /**
+     * Same as {@link #splitInto(TimeWindowUnit, long)}, but business days are of the given calendar.
+     */
+    public List<TimeWindow> splitInto(TimeWindowUnit unit, long step, BusinessCalendar calendar){
+        Spliterator<TimeWindow> spliterator = spliterator(unit, step, calendar);
+        List<TimeWindow> b = new ArrayList<>((int) Math.min(spliterator.estimateSize(), Integer.MAX_VALUE - 8));
+        spliterator.forEachRemaining(b::add);
+        return b;
+    }
+
+    /**
+     * Returns a lazy spliterator of the sub-windows in the same way as {@link #splitInto(TimeWindowUnit, long)}.
+     */
+    public Spliterator<TimeWindow> spliterator(TimeWindowUnit unit, long step){
+        return new TimeWindowSpliterator(this, unit, step);
+    }
+
+    public Spliterator<TimeWindow> spliterator(TimeWindowUnit unit, long step, BusinessCalendar calendar){
+        return new TimeWindowSpliterator(this, unit, step, calendar, false);
+    }
+
+    public Iterator<TimeWindow> iterator(TimeWindowUnit unit, long step){
+        return Spliterators.iterator(spliterator(unit, step));
+    }
+
+    public Stream<TimeWindow> stream(TimeWindowUnit unit, long step){
+        return StreamSupport.stream(spliterator(unit, step), false);
+    }
+
+    public Stream<TimeWindow> stream(TimeWindowUnit unit, long step, BusinessCalendar calendar){
+        return StreamSupport.stream(spliterator(unit, step, calendar), false);
+    }
+
+    public Stream<TimeWindow> streamHours(){
+        return stream(TimeWindowUnit.Hour, 1);
+    }
+
+    public Stream<TimeWindow> streamDays(){
+        return stream(TimeWindowUnit.Day, 1);
+    }
+
+    /**
+     * Returns a lazy stream of the same sub-windows as {@link #splitIntoWeeks()}, whose boundaries are Mondays
+     * at the time of day of the start. Use {@link #stream(TimeWindowUnit, long)} for boundaries at midnight.
+     */
+    public Stream<TimeWindow> streamWeeks(){
+        return StreamSupport.stream(new TimeWindowSpliterator(this, TimeWindowUnit.Week, 1, BusinessCalendar.WEEKDAYS, true), false);
+    }
+
+    /**
+     * Returns a lazy stream of the same sub-windows as {@link #splitIntoMonths()}, whose boundaries are the first days
+     * of months at the time of day of the start. Use {@link #stream(TimeWindowUnit, long)} for boundaries at midnight.
+     */
+    public Stream<TimeWindow> streamMonths(){
+        return StreamSupport.stream(new TimeWindowSpliterator(this, TimeWindowUnit.Month, 1, BusinessCalendar.WEEKDAYS, true), false);
+    }
+
     public List<TimeWindow> splitAt(ZonedDateTime date) {
         if(date.compareTo(start) <= 0 || date.compareTo(end) > 0){
             return Arrays.asList(this);
@@ -122,17 +201,19 @@ public class TimeWindow {
         return start.compareTo(other.end) < 0 && end.compareTo(other.start) > 0;
     }
 
+    /**
+     * Returns a builder on the named zone. A region zone such as PST or America/Los_Angeles keeps its daylight saving time.
+     */
     public static TimeWindowBuilder withTimeZone(String zoneName){
-        Map<String, String> idMap = new HashMap<>(ZoneId.SHORT_IDS);
-        idMap.put("PDT", "-07:00");
-        idMap.put("EDT", "-04:00");
-        idMap.put("CDT", "-05:00");
-        idMap.put("MDT", "-06:00");
+        return withZoneId(ZoneRegistry.zoneOf(zoneName));
+    }
 
-        ZoneId zoneId = ZoneId.of(idMap.getOrDefault(zoneName, zoneName));
-        ZoneOffset offset = ZonedDateTime.now(zoneId).getOffset();
+    public static TimeWindowBuilder withZoneId(ZoneId zoneId){
+        return new TimeWindowBuilder(zoneId);
+    }
 
-        return withTimeZone(offset);
+    public static TimeWindowBuilder withSystemZoneId(){
+        return withZoneId(ZoneId.systemDefault());
     }
 
     public static TimeWindowBuilder withTimeZone(ZoneOffset zoneId){
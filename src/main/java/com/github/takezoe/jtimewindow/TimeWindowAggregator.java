@@ -0,0 +1,202 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates values into buckets on the grid of a {@link TimeWindowUnit}, e.g. 60 buckets of a minute.
+ * <p>
+ * Buckets form a ring, and a bucket is replaced by a new one when a value of a later grid arrives at its slot,
+ * so only the latest <code>bucketCount</code> units are kept. Recording is lock-free, and values older than
+ * the ring are dropped. A value recorded concurrently with the replacement of its bucket may be lost.
+ * <p>
+ * Queries aggregate the buckets which start within the given window, which can be given as an expression
+ * evaluated by the builder, e.g. <code>-15m/now</code>. Business days are of the calendar of the builder.
+ */
+public final class TimeWindowAggregator {
+
+    private static final class Bucket {
+        final long start;
+        final LongAdder sum = new LongAdder();
+        final LongAdder count = new LongAdder();
+        final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        Bucket(long start) {
+            this.start = start;
+        }
+
+        void add(long value) {
+            sum.add(value);
+            count.increment();
+            min.accumulate(value);
+            max.accumulate(value);
+        }
+    }
+
+    private final TimeWindowBuilder builder;
+    private final TimeWindowUnit unit;
+    private final ZoneId zone;
+    private final BusinessCalendar calendar;
+    // Business days are numbered from this epoch day
+    private final long anchorDay;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    public TimeWindowAggregator(TimeWindowBuilder builder, TimeWindowUnit unit, int bucketCount) {
+        if (bucketCount <= 0) {
+            throw new IllegalArgumentException("Invalid bucket count: " + bucketCount);
+        }
+        this.builder = builder;
+        this.unit = unit;
+        this.zone = builder.getZoneId();
+        this.calendar = builder.getCalendar();
+        this.anchorDay = Math.floorDiv(builder.currentTimeMillis(), CivilDate.MILLIS_PER_DAY);
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    public TimeWindowUnit getUnit() {
+        return this.unit;
+    }
+
+    public int getBucketCount() {
+        return buckets.length();
+    }
+
+    /**
+     * Records the value at the current time of the builder.
+     */
+    public boolean record(long value) {
+        return record(builder.currentTimeMillis(), value);
+    }
+
+    /**
+     * Records the value at the given time. Returns false if the time is older than the buckets in the ring.
+     */
+    public boolean record(long epochMillis, long value) {
+        long start = unit.truncateMillis(epochMillis, zone, calendar);
+        int slot = (int) Math.floorMod(bucketNumber(start), (long) buckets.length());
+        Bucket bucket = buckets.get(slot);
+        while (bucket == null || bucket.start != start) {
+            if (bucket != null && bucket.start > start) {
+                return false;
+            }
+            Bucket newBucket = new Bucket(start);
+            if (buckets.compareAndSet(slot, bucket, newBucket)) {
+                bucket = newBucket;
+            } else {
+                bucket = buckets.get(slot);
+            }
+        }
+        bucket.add(value);
+        return true;
+    }
+
+    // Sequential number of the grid, so that consecutive grids go to consecutive slots
+    private long bucketNumber(long start) {
+        long fixedMillis = unit.fixedMillis();
+        if (fixedMillis > 0 && fixedMillis < CivilDate.MILLIS_PER_DAY) {
+            return Math.floorDiv(start, fixedMillis);
+        }
+        int offsetSeconds = (zone instanceof ZoneOffset) ?
+                ((ZoneOffset) zone).getTotalSeconds() : ZoneRegistry.transitionsOf(zone).offsetSecondsAt(start);
+        long localMillis = start + offsetSeconds * 1000L;
+        if (fixedMillis > 0) {
+            return Math.floorDiv(localMillis, fixedMillis);
+        }
+        long date = CivilDate.fromEpochDay(Math.floorDiv(localMillis, CivilDate.MILLIS_PER_DAY));
+        long month = CivilDate.year(date) * 12 + CivilDate.month(date) - 1;
+        switch (unit) {
+            case BusinessDay:
+                // The number of business days from the anchor, so that holidays and weekends don't take slots
+                long epochDay = Math.floorDiv(localMillis, CivilDate.MILLIS_PER_DAY);
+                return (epochDay >= anchorDay) ?
+                        calendar.countBusinessDays(anchorDay, epochDay) : -calendar.countBusinessDays(epochDay, anchorDay);
+            case Quarter:
+                return Math.floorDiv(month, 3);
+            case Year:
+                return CivilDate.year(date);
+            default:
+                return month;
+        }
+    }
+
+    public long sum(TimeWindow window) {
+        long from = window.startEpochMillis();
+        long to = window.endEpochMillis();
+        long sum = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (contains(from, to, bucket)) {
+                sum += bucket.sum.sum();
+            }
+        }
+        return sum;
+    }
+
+    public long count(TimeWindow window) {
+        long from = window.startEpochMillis();
+        long to = window.endEpochMillis();
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (contains(from, to, bucket)) {
+                count += bucket.count.sum();
+            }
+        }
+        return count;
+    }
+
+    public OptionalLong min(TimeWindow window) {
+        long from = window.startEpochMillis();
+        long to = window.endEpochMillis();
+        long min = Long.MAX_VALUE;
+        boolean found = false;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (contains(from, to, bucket) && bucket.count.sum() > 0) {
+                min = Math.min(min, bucket.min.get());
+                found = true;
+            }
+        }
+        return found ? OptionalLong.of(min) : OptionalLong.empty();
+    }
+
+    public OptionalLong max(TimeWindow window) {
+        long from = window.startEpochMillis();
+        long to = window.endEpochMillis();
+        long max = Long.MIN_VALUE;
+        boolean found = false;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (contains(from, to, bucket) && bucket.count.sum() > 0) {
+                max = Math.max(max, bucket.max.get());
+                found = true;
+            }
+        }
+        return found ? OptionalLong.of(max) : OptionalLong.empty();
+    }
+
+    public long sum(String expression) {
+        return sum(builder.parse(expression));
+    }
+
+    public long count(String expression) {
+        return count(builder.parse(expression));
+    }
+
+    public OptionalLong min(String expression) {
+        return min(builder.parse(expression));
+    }
+
+    public OptionalLong max(String expression) {
+        return max(builder.parse(expression));
+    }
+
+    private static boolean contains(long from, long to, Bucket bucket) {
+        return bucket != null && from <= bucket.start && bucket.start < to;
+    }
+}
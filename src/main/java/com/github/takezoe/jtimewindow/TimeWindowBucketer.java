@@ -0,0 +1,130 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * Maps timestamps to the index of the sub-window which contains them, where the sub-windows are the same as
+ * {@link TimeWindow#splitInto(TimeWindowUnit, long)}. Boundaries are precomputed into a primitive array, and
+ * an index is computed by arithmetic for units of a fixed length under a fixed zone offset, or by binary search otherwise.
+ */
+public final class TimeWindowBucketer {
+
+    private final long[] bounds;
+    private final ZoneId zone;
+    private final long start;
+    private final long end;
+    // Only used if stepMillis > 0
+    private final long gridMillis;
+    private final long stepMillis;
+
+    public TimeWindowBucketer(TimeWindow window, TimeWindowUnit unit, long step) {
+        this(window, unit, step, BusinessCalendar.WEEKDAYS);
+    }
+
+    /**
+     * Same as {@link #TimeWindowBucketer(TimeWindow, TimeWindowUnit, long)}, but business days are of the given calendar.
+     */
+    public TimeWindowBucketer(TimeWindow window, TimeWindowUnit unit, long step, BusinessCalendar calendar) {
+        TimeWindowSpliterator spliterator = new TimeWindowSpliterator(window, unit, step, calendar, false);
+        long count = spliterator.estimateSize();
+        if (count >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many buckets in " + window + " for " + step + " " + unit);
+        }
+        this.bounds = new long[(int) count + 1];
+        for (int k = 0; k < count; k++) {
+            bounds[k] = TimeWindow.toEpochMillis(spliterator.boundary(k));
+        }
+        bounds[(int) count] = window.endEpochMillis();
+        this.zone = window.getStart().getZone();
+        this.start = bounds[0];
+        this.end = bounds[(int) count];
+        this.gridMillis = spliterator.gridMillis();
+        this.stepMillis = spliterator.stepMillis();
+    }
+
+    /**
+     * Returns the number of buckets.
+     */
+    public int size() {
+        return bounds.length - 1;
+    }
+
+    public long startEpochMillis(int index) {
+        return bounds[index];
+    }
+
+    public long endEpochMillis(int index) {
+        return bounds[index + 1];
+    }
+
+    public TimeWindow window(int index) {
+        return new TimeWindow(toZonedDateTime(bounds[index]), toZonedDateTime(bounds[index + 1]));
+    }
+
+    private ZonedDateTime toZonedDateTime(long epochMillis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+
+    /**
+     * Returns the boundaries <code>[start0, start1, ..., end]</code> of the buckets.
+     */
+    public long[] boundaries() {
+        return Arrays.copyOf(bounds, bounds.length);
+    }
+
+    /**
+     * Returns the index of the bucket which contains the given time, or -1 if it's out of the window.
+     */
+    public int bucketOf(long epochMillis) {
+        if (epochMillis < start || epochMillis >= end) {
+            return -1;
+        }
+        if (stepMillis > 0) {
+            return (int) ((epochMillis - gridMillis) / stepMillis);
+        }
+        return search(epochMillis);
+    }
+
+    // The last bucket whose start <= epochMillis
+    private int search(long epochMillis) {
+        int low = 0;
+        int high = bounds.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (bounds[mid] <= epochMillis) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Writes the bucket index of each time into <code>out</code> in the same way as {@link #bucketOf(long)}.
+     */
+    public void bucketAll(long[] in, int[] out) {
+        if (out.length < in.length) {
+            throw new IllegalArgumentException("Output is shorter than input: " + out.length + " < " + in.length);
+        }
+        if (stepMillis > 0) {
+            // A simple loop without calls for the JIT compiler
+            long start = this.start;
+            long end = this.end;
+            long gridMillis = this.gridMillis;
+            long stepMillis = this.stepMillis;
+            for (int i = 0; i < in.length; i++) {
+                long t = in[i];
+                out[i] = (t >= start && t < end) ? (int) ((t - gridMillis) / stepMillis) : -1;
+            }
+        } else {
+            for (int i = 0; i < in.length; i++) {
+                long t = in[i];
+                out[i] = (t >= start && t < end) ? search(t) : -1;
+            }
+        }
+    }
+}
@@ -1,33 +1,80 @@
 package com.github.takezoe.jtimewindow;
 
+import java.time.Clock;
 import java.time.DayOfWeek;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Port of airframe-metrics
  */
 public class TimeWindowBuilder {
 
-    private final ZoneOffset zone;
+    private static final int EXPRESSION_CACHE_SIZE = 256;
+
+    // Hits don't lock. The cache is cleared when it's full instead of evicting the eldest entry,
+    // so a burst of distinct expressions only costs recompiling the frequent ones.
+    private static final ConcurrentHashMap<String, TimeWindowExpression> expressionCache = new ConcurrentHashMap<>();
+
+    private final ZoneId zone;
     private final ZonedDateTime currentTime;
+    // The system clock is used if null
+    private final Clock clock;
+    private final BusinessCalendar calendar;
 
     public TimeWindowBuilder(ZoneOffset zone){
         this(zone, null);
     }
 
     public TimeWindowBuilder(ZoneOffset zone, ZonedDateTime currentTime){
-        this.zone = zone;
-        this.currentTime = currentTime;
+        this((ZoneId) zone, currentTime);
+    }
+
+    /**
+     * Creates a builder on a region zone such as America/Los_Angeles. Windows follow the daylight saving time
+     * of the zone, e.g. a day can be 23 or 25 hours.
+     */
+    public TimeWindowBuilder(ZoneId zone){
+        this(zone, null);
+    }
+
+    public TimeWindowBuilder(ZoneId zone, ZonedDateTime currentTime){
+        this(zone, currentTime, null, BusinessCalendar.WEEKDAYS);
+    }
+
+    private TimeWindowBuilder(ZoneId zone, ZonedDateTime currentTime, Clock clock, BusinessCalendar calendar){
+        this.clock = clock;
+        this.calendar = calendar;
+        // Zones with a fixed offset such as UTC are handled as ZoneOffset
+        this.zone = zone.normalized();
+        // On a region zone, the current time needs to be in the zone to follow its transitions
+        if(currentTime != null && !(this.zone instanceof ZoneOffset)){
+            this.currentTime = currentTime.withZoneSameInstant(this.zone);
+        } else {
+            this.currentTime = currentTime;
+        }
     }
 
+    /**
+     * Returns the zone offset. For a region zone, this is the offset at the current time.
+     */
     public ZoneOffset getZone(){
+        if(zone instanceof ZoneOffset){
+            return (ZoneOffset) zone;
+        }
+        return ZoneRegistry.transitionsOf(zone).offsetAt(TimeWindow.toEpochMillis(now()));
+    }
+
+    public ZoneId getZoneId(){
         return this.zone;
     }
 
@@ -35,8 +82,33 @@ public class TimeWindowBuilder {
         return this.currentTime;
     }
 
+    /**
+     * Returns the clock which gives the current time if the current time is not pinned by {@link #withOffset(ZonedDateTime)}.
+     */
+    public Clock getClock(){
+        return (clock != null) ? clock : Clock.system(zone);
+    }
+
+    /**
+     * Returns the calendar of business days, which is used by the unit <code>b</code> such as <code>-5b</code>.
+     */
+    public BusinessCalendar getCalendar(){
+        return this.calendar;
+    }
+
     public TimeWindowBuilder withOffset(ZonedDateTime t){
-        return new TimeWindowBuilder(zone, t);
+        return new TimeWindowBuilder(zone, t, clock, calendar);
+    }
+
+    /**
+     * Uses the given clock as the source of the current time, e.g. a fixed clock in tests or a {@link CachedClock}.
+     */
+    public TimeWindowBuilder withClock(Clock clock){
+        return new TimeWindowBuilder(zone, currentTime, clock, calendar);
+    }
+
+    public TimeWindowBuilder withCalendar(BusinessCalendar calendar){
+        return new TimeWindowBuilder(zone, currentTime, clock, calendar);
     }
 
     public TimeWindowBuilder withOffset(String dateTimeStr){
@@ -54,11 +126,30 @@ public class TimeWindowBuilder {
     public ZonedDateTime now(){
         if(currentTime != null) {
             return currentTime;
+        } else if(clock != null) {
+            return ZonedDateTime.ofInstant(clock.instant(), zone);
         } else {
             return ZonedDateTime.now(zone);
         }
     }
 
+    /**
+     * Same as {@link #now()} in epoch millis, which doesn't allocate.
+     */
+    long currentTimeMillis(){
+        if(currentTime != null) {
+            return TimeWindow.toEpochMillis(currentTime);
+        } else if(clock != null) {
+            return clock.millis();
+        } else {
+            return System.currentTimeMillis();
+        }
+    }
+
+    boolean isCurrentTimePinned(){
+        return currentTime != null;
+    }
+
     public ZonedDateTime beginningOfTheHour() {
         return now().truncatedTo(ChronoUnit.HOURS);
     }
@@ -123,72 +214,63 @@ public class TimeWindowBuilder {
         return today().minus(1, ChronoUnit.DAYS);
     }
 
-    private ZonedDateTime parseOffset(String o, TimeWindowUnit windowUnit, List<TimeVector> adjustments){
-        Pattern pattern = Pattern.compile("^(?<duration>[^/]+)(?<sep>/(?<offset>.+))");
-        Matcher m = pattern.matcher(o);
-        if(m.find()){
-            adjustments.add(TimeVector.of(m.group("duration")));
-            return parseOffset(m.group("offset"), windowUnit, adjustments);
-        } else {
-            if(o.equals("now")) {
-                return adjustOffset(now(), adjustments);
-            }
-            try {
-                // When the offset string is time duration patterns (e.g., 0M, 0d, etc.)
-                TimeVector x = TimeVector.of(o);
-                if (x.getDuration() <= 0) {
-                    return x.timeWindowFrom(adjustOffset(now(), adjustments)).getStart();
-                } else {
-                    return x.timeWindowFrom(adjustOffset(now(), adjustments)).getEnd();
-                }
-            } catch (Exception ex){
-                boolean truncate = true;
-                if(o.endsWith(")")){
-                    o = o.substring(0, o.length() - 1);
-                    truncate = false;
-                }
+    public TimeWindow parse(String str){
+        return parse(compile(str));
+    }
 
-                ZonedDateTime d = TimeParser.parse(o, zone);
-                if(d == null){
-                    throw new IllegalArgumentException("Invalid offset string: " + o);
-                }
-                ZonedDateTime adjusted = adjustOffset(d, adjustments);
-                if(!truncate){
-                    return adjusted;
-                }
-                ZonedDateTime truncated = windowUnit.truncate(adjusted);
-                if(truncated == null){
-                    throw new IllegalArgumentException("Invalid offset string: " + o);
-                }
-                return truncated;
-            }
-        }
+    public TimeWindow parse(TimeWindowExpression expression){
+        ZonedDateTime now = expression.isRelative() ? now() : null;
+        return expression.evaluate(now, zone, calendar);
+    }
+
+    /**
+     * Returns a handle of the window of the given expression, which is reevaluated only when the current time
+     * passes the grid boundary of the expression.
+     */
+    public LiveTimeWindow live(String str){
+        return live(compile(str));
     }
 
-    private ZonedDateTime adjustOffset(ZonedDateTime offset, List<TimeVector> adjustments){
-        for(TimeVector duration: adjustments){
-            offset = duration.getUnit().increment(offset, duration.getDuration());
+    public LiveTimeWindow live(TimeWindowExpression expression){
+        return new LiveTimeWindow(this, expression);
+    }
+
+    /**
+     * Parses the given expressions against the same current time, and returns the results in the input order.
+     * Identical expressions are evaluated only once, and a failure of an expression doesn't affect the others.
+     */
+    public List<TimeWindowResult> parseAll(Collection<String> expressions){
+        ReferenceTime reference = new ReferenceTime(now(), calendar);
+        Map<String, TimeWindowResult> evaluated = new HashMap<>();
+        List<TimeWindowResult> results = new ArrayList<>(expressions.size());
+        for(String str: expressions){
+            TimeWindowResult result = evaluated.get(str);
+            if(result == null){
+                try {
+                    result = new TimeWindowResult(str, compile(str).evaluate(reference, zone), null);
+                } catch (RuntimeException ex){
+                    result = new TimeWindowResult(str, null, ex);
+                }
+                evaluated.put(str, result);
+            }
+            results.add(result);
         }
-        return offset;
+        return results;
     }
 
-    public TimeWindow parse(String str){
-        Pattern pattern = Pattern.compile("^(?<duration>[^/]+)(?<sep>/(?<offset>.*))?");
-        Matcher m = pattern.matcher(str);
-        if(m.find()){
-            String d = m.group("duration");
-            TimeVector duration = TimeVector.of(d);
-            String offsetStr = m.group("offset");
-            if(offsetStr == null){
-                ZonedDateTime context = duration.getUnit().truncate(now());
-                return duration.timeWindowFrom(context);
-            } else {
-                ZonedDateTime offset = parseOffset(offsetStr, duration.getUnit(), new ArrayList<>());
-                return duration.timeWindowFrom(offset);
+    /**
+     * Returns the compiled expression, which is shared through a bounded cache.
+     */
+    public static TimeWindowExpression compile(String str){
+        TimeWindowExpression expression = expressionCache.get(str);
+        if(expression == null){
+            expression = TimeWindowExpression.compile(str);
+            if(expressionCache.size() >= EXPRESSION_CACHE_SIZE){
+                expressionCache.clear();
             }
-        } else {
-            throw new IllegalArgumentException("TimeRange.of(" + str + ")");
+            expressionCache.put(str, expression);
         }
+        return expression;
     }
 
     public TimeWindow fromRange(long startUnixTime, long endUnixTime){
@@ -0,0 +1,220 @@
+package com.github.takezoe.jtimewindow;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact encodings of {@link TimeWindow}.
+ * <p>
+ * The binary form of a window is an offset byte followed by the zigzag varint of the start epoch millis and
+ * the zigzag varint of the length. The offset byte is the zone offset in quarter hours, or {@link #OFFSET_ESCAPE}
+ * followed by the offsets of the start and the end in seconds if they are not representable by a single byte.
+ * A list of windows is a varint count followed by windows whose start is encoded as the delta from the end of
+ * the previous window.
+ * <p>
+ * The text form is <code>[yyyy-MM-dd HH:mm:ss[.SSS]+HHMM,yyyy-MM-dd HH:mm:ss[.SSS]+HHMM)</code>, which can be
+ * parsed back by {@link TimeParser} as long as the offsets are whole minutes. Decoded windows are on {@link ZoneOffset}, so the region of the zone is not kept.
+ */
+public final class TimeWindowCodec {
+
+    /**
+     * The maximum number of bytes of a single encoded window.
+     */
+    public static final int MAX_ENCODED_LENGTH = 1 + 3 + 3 + 10 + 10;
+
+    static final byte OFFSET_ESCAPE = Byte.MIN_VALUE;
+
+    private static final int SECONDS_PER_QUARTER = 15 * 60;
+
+    private TimeWindowCodec() {
+    }
+
+    /**
+     * Writes the window to the buffer and returns the number of written bytes.
+     *
+     * @throws BufferOverflowException if the buffer doesn't have enough space
+     */
+    public static int encode(TimeWindow window, ByteBuffer buffer) {
+        return encode(window.startEpochMillis(), window.endEpochMillis(),
+                window.getStart().getOffset().getTotalSeconds(), window.getEnd().getOffset().getTotalSeconds(), 0, buffer);
+    }
+
+    public static int encode(LongTimeWindow window, ByteBuffer buffer) {
+        return encode(window.getStartEpochMillis(), window.getEndEpochMillis(), window.offsetSecondsAt(window.getStartEpochMillis()),
+                window.offsetSecondsAt(window.getEndEpochMillis()), 0, buffer);
+    }
+
+    private static int encode(long start, long end, int startOffset, int endOffset, long base, ByteBuffer buffer) {
+        int position = buffer.position();
+        if (startOffset == endOffset && startOffset % SECONDS_PER_QUARTER == 0) {
+            buffer.put((byte) (startOffset / SECONDS_PER_QUARTER));
+        } else {
+            buffer.put(OFFSET_ESCAPE);
+            putVarLong(buffer, zigzag(startOffset));
+            putVarLong(buffer, zigzag(endOffset));
+        }
+        putVarLong(buffer, zigzag(start - base));
+        putVarLong(buffer, zigzag(end - start));
+        return buffer.position() - position;
+    }
+
+    /**
+     * Reads a window written by {@link #encode(TimeWindow, ByteBuffer)}.
+     *
+     * @throws BufferUnderflowException if the buffer ends in the middle of the window
+     */
+    public static TimeWindow decode(ByteBuffer buffer) {
+        return decode(buffer, 0);
+    }
+
+    /**
+     * Reads a window into {@link LongTimeWindow}. The offset of the end is dropped if it differs from the start.
+     */
+    public static LongTimeWindow decodeLong(ByteBuffer buffer) {
+        int startOffset;
+        byte b = buffer.get();
+        if (b == OFFSET_ESCAPE) {
+            startOffset = (int) unzigzag(getVarLong(buffer));
+            getVarLong(buffer);
+        } else {
+            startOffset = b * SECONDS_PER_QUARTER;
+        }
+        long start = unzigzag(getVarLong(buffer));
+        long end = start + unzigzag(getVarLong(buffer));
+        return new LongTimeWindow(start, end, ZoneOffset.ofTotalSeconds(startOffset));
+    }
+
+    private static TimeWindow decode(ByteBuffer buffer, long base) {
+        int startOffset;
+        int endOffset;
+        byte b = buffer.get();
+        if (b == OFFSET_ESCAPE) {
+            startOffset = (int) unzigzag(getVarLong(buffer));
+            endOffset = (int) unzigzag(getVarLong(buffer));
+        } else {
+            startOffset = endOffset = b * SECONDS_PER_QUARTER;
+        }
+        long start = base + unzigzag(getVarLong(buffer));
+        long end = start + unzigzag(getVarLong(buffer));
+        ZoneOffset zone = ZoneOffset.ofTotalSeconds(startOffset);
+        return new TimeWindow(toZonedDateTime(start, zone),
+                toZonedDateTime(end, (endOffset == startOffset) ? zone : ZoneOffset.ofTotalSeconds(endOffset)));
+    }
+
+    /**
+     * Writes the windows to the buffer and returns the number of written bytes. Windows sorted by time,
+     * such as the result of {@link TimeWindow#splitInto(TimeWindowUnit, long)}, are encoded in a few bytes each.
+     */
+    public static int encodeAll(List<TimeWindow> windows, ByteBuffer buffer) {
+        int position = buffer.position();
+        putVarLong(buffer, windows.size());
+        long base = 0;
+        for (TimeWindow window : windows) {
+            long end = window.endEpochMillis();
+            encode(window.startEpochMillis(), end, window.getStart().getOffset().getTotalSeconds(),
+                    window.getEnd().getOffset().getTotalSeconds(), base, buffer);
+            base = end;
+        }
+        return buffer.position() - position;
+    }
+
+    public static List<TimeWindow> decodeAll(ByteBuffer buffer) {
+        long size = getVarLong(buffer);
+        if (size < 0 || size > buffer.remaining() / 3) {
+            throw new IllegalArgumentException("Invalid number of windows " + size);
+        }
+        List<TimeWindow> windows = new ArrayList<>((int) size);
+        long base = 0;
+        for (long i = 0; i < size; i++) {
+            TimeWindow window = decode(buffer, base);
+            windows.add(window);
+            base = window.endEpochMillis();
+        }
+        return windows;
+    }
+
+    /**
+     * Returns the text form of the window. Milliseconds are written only if they are not zero.
+     */
+    public static String toText(TimeWindow window) {
+        StringBuilder sb = new StringBuilder(59);
+        appendText(window, sb);
+        return sb.toString();
+    }
+
+    public static void appendText(TimeWindow window, StringBuilder out) {
+        out.append('[');
+        appendTimestamp(window.startEpochMillis(), window.getStart().getOffset(), out);
+        out.append(',');
+        appendTimestamp(window.endEpochMillis(), window.getEnd().getOffset(), out);
+        out.append(')');
+    }
+
+    private static void appendTimestamp(long millis, ZoneOffset zone, StringBuilder out) {
+        // Milliseconds are written only if they are not 0
+        TimeStampFormatter.formatTimestamp(millis, zone, Math.floorMod(millis, 1000L) != 0, out);
+    }
+
+    /**
+     * Parses the text form written by {@link #toText(TimeWindow)}.
+     *
+     * @throws IllegalArgumentException if the text is not a valid window
+     */
+    public static TimeWindow parseText(CharSequence text) {
+        int length = text.length();
+        int comma = -1;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == ',') {
+                comma = i;
+                break;
+            }
+        }
+        if (length < 2 || text.charAt(0) != '[' || text.charAt(length - 1) != ')' || comma < 0) {
+            throw new IllegalArgumentException("Invalid time window: " + text);
+        }
+        ZonedDateTime start = FastTimeParser.parse(text, 1, comma, Constants.UTC);
+        ZonedDateTime end = FastTimeParser.parse(text, comma + 1, length - 1, Constants.UTC);
+        if (start == null || end == null) {
+            throw new IllegalArgumentException("Invalid time window: " + text);
+        }
+        return new TimeWindow(start, end);
+    }
+
+    private static ZonedDateTime toZonedDateTime(long epochMillis, ZoneOffset zone) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buffer.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buffer.put((byte) v);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -0,0 +1,211 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compiled time window expression such as <code>-7d/now</code>.
+ * All durations and offsets are resolved at compile time, so only the evaluation
+ * against the current time is left. Instances are immutable and thread-safe.
+ */
+public final class TimeWindowExpression {
+
+    private enum OffsetKind {
+        NONE, NOW, DURATION, DATE
+    }
+
+    private final String expression;
+    private final TimeVector duration;
+    private final TimeVector[] adjustments;
+    private final OffsetKind offsetKind;
+    private final TimeVector offsetDuration;
+    private final LocalDateTime localOffset;
+    private final ZonedDateTime zonedOffset;
+    private final boolean truncateOffset;
+
+    private TimeWindowExpression(String expression, TimeVector duration, TimeVector[] adjustments, OffsetKind offsetKind,
+                                 TimeVector offsetDuration, LocalDateTime localOffset, ZonedDateTime zonedOffset,
+                                 boolean truncateOffset) {
+        this.expression = expression;
+        this.duration = duration;
+        this.adjustments = adjustments;
+        this.offsetKind = offsetKind;
+        this.offsetDuration = offsetDuration;
+        this.localOffset = localOffset;
+        this.zonedOffset = zonedOffset;
+        this.truncateOffset = truncateOffset;
+    }
+
+    public static TimeWindowExpression compile(String str){
+        TimeExpressionLexer lexer = new TimeExpressionLexer(str);
+        if(!lexer.readRange()){
+            throw new IllegalArgumentException("TimeRange.of(" + str + ")");
+        }
+        if(lexer.vector() == null){
+            throw new IllegalArgumentException("Invalid duration: " + lexer.text());
+        }
+        TimeVector duration = lexer.vector();
+        if(!lexer.hasOffset()){
+            return new TimeWindowExpression(str, duration, new TimeVector[0], OffsetKind.NONE, null, null, null, true);
+        }
+
+        List<TimeVector> adjustments = new ArrayList<>();
+        while(lexer.readOffset()){
+            if(lexer.vector() == null){
+                throw new IllegalArgumentException("Invalid duration: " + lexer.text());
+            }
+            adjustments.add(lexer.vector());
+        }
+        TimeVector[] adjustmentArray = adjustments.toArray(new TimeVector[0]);
+
+        switch(lexer.type()){
+            case NOW:
+                return new TimeWindowExpression(str, duration, adjustmentArray, OffsetKind.NOW, null, null, null, true);
+            case KEYWORD:
+            case DURATION:
+                // When the offset string is time duration patterns (e.g., 0M, 0d, etc.)
+                return new TimeWindowExpression(str, duration, adjustmentArray, OffsetKind.DURATION, lexer.vector(), null, null, true);
+            default:
+                String o = lexer.text();
+                LocalDateTime local = TimeParser.parseLocalDateTime(o);
+                ZonedDateTime zoned = null;
+                if(local == null){
+                    zoned = TimeParser.parseZonedDateTime(o);
+                    if(zoned == null){
+                        throw new IllegalArgumentException("Invalid offset string: " + o);
+                    }
+                }
+                return new TimeWindowExpression(str, duration, adjustmentArray, OffsetKind.DATE, null, local, zoned, !lexer.isUntruncated());
+        }
+    }
+
+    public String getExpression(){
+        return this.expression;
+    }
+
+    public TimeVector getDuration(){
+        return this.duration;
+    }
+
+    /**
+     * Returns true if the result of this expression depends on the current time.
+     */
+    public boolean isRelative(){
+        return offsetKind != OffsetKind.DATE;
+    }
+
+    /**
+     * Evaluates this expression. The zone is used to resolve offset dates without time zone,
+     * and <code>now</code> may be null if this expression is not relative.
+     */
+    public TimeWindow evaluate(ZonedDateTime now, ZoneId zone){
+        return evaluate(now, zone, BusinessCalendar.WEEKDAYS);
+    }
+
+    /**
+     * Evaluates this expression with business days of the given calendar.
+     */
+    public TimeWindow evaluate(ZonedDateTime now, ZoneId zone, BusinessCalendar calendar){
+        return evaluate(now, null, zone, calendar);
+    }
+
+    /**
+     * Evaluates this expression against a reference time shared with other expressions.
+     */
+    TimeWindow evaluate(ReferenceTime reference, ZoneId zone){
+        return evaluate(reference.now(), reference, zone, reference.calendar());
+    }
+
+    private TimeWindow evaluate(ZonedDateTime now, ReferenceTime reference, ZoneId zone, BusinessCalendar calendar){
+        if(offsetKind == OffsetKind.NONE){
+            ZonedDateTime context = grid(duration.getUnit(), now, reference, calendar);
+            return duration.timeWindowFrom(context, context, calendar);
+        } else {
+            return duration.timeWindowFrom(resolveOffset(now, reference, zone, calendar), calendar);
+        }
+    }
+
+    /**
+     * Returns the epoch millis until which this expression evaluates to the given window, which was evaluated at now.
+     * Long.MIN_VALUE means the window needs to be evaluated every time.
+     */
+    long expiresAt(ZonedDateTime now, TimeWindow window, BusinessCalendar calendar){
+        switch(offsetKind){
+            case DATE:
+                return Long.MAX_VALUE;
+            case NONE:
+                // Only the grid of the current time is used
+                return nextGrid(duration.getUnit(), now, calendar);
+            case DURATION:
+                if(adjustments.length > 0){
+                    return Long.MIN_VALUE;
+                }
+                long nowMillis = TimeWindow.toEpochMillis(now);
+                // Whether the current time is on the grid changes the result just after it
+                if(duration.getUnit().truncate(now, calendar).isEqual(now) || offsetDuration.getUnit().truncate(now, calendar).isEqual(now)){
+                    return nowMillis;
+                }
+                long expiresAt = Math.min(nextGrid(duration.getUnit(), now, calendar), nextGrid(offsetDuration.getUnit(), now, calendar));
+                // The current time may be compared with the bounds of the window
+                for(long bound: new long[]{window.startEpochMillis(), window.endEpochMillis()}){
+                    if(bound >= nowMillis){
+                        expiresAt = Math.min(expiresAt, bound);
+                    }
+                }
+                return expiresAt;
+            default:
+                return Long.MIN_VALUE;
+        }
+    }
+
+    private static long nextGrid(TimeWindowUnit unit, ZonedDateTime now, BusinessCalendar calendar){
+        return TimeWindow.toEpochMillis(unit.increment(unit.truncate(now, calendar), 1, calendar));
+    }
+
+    private ZonedDateTime resolveOffset(ZonedDateTime now, ReferenceTime reference, ZoneId zone, BusinessCalendar calendar){
+        switch(offsetKind){
+            case NOW:
+                return adjustOffset(now, calendar);
+            case DURATION:
+                TimeWindow w;
+                if(adjustments.length == 0){
+                    w = offsetDuration.timeWindowFrom(now, grid(offsetDuration.getUnit(), now, reference, calendar), calendar);
+                } else {
+                    w = offsetDuration.timeWindowFrom(adjustOffset(now, calendar), calendar);
+                }
+                if (offsetDuration.getDuration() <= 0) {
+                    return w.getStart();
+                } else {
+                    return w.getEnd();
+                }
+            case DATE:
+                ZonedDateTime d = (localOffset != null) ? ZonedDateTime.of(localOffset, zone) : zonedOffset;
+                ZonedDateTime adjusted = adjustOffset(d, calendar);
+                if(!truncateOffset){
+                    return adjusted;
+                }
+                return duration.getUnit().truncate(adjusted, calendar);
+            default:
+                throw new IllegalStateException("Unexpected offset kind: " + offsetKind);
+        }
+    }
+
+    private static ZonedDateTime grid(TimeWindowUnit unit, ZonedDateTime now, ReferenceTime reference, BusinessCalendar calendar){
+        return (reference != null) ? reference.grid(unit) : unit.truncate(now, calendar);
+    }
+
+    private ZonedDateTime adjustOffset(ZonedDateTime offset, BusinessCalendar calendar){
+        for(TimeVector adjustment: adjustments){
+            offset = adjustment.getUnit().increment(offset, adjustment.getDuration(), calendar);
+        }
+        return offset;
+    }
+
+    @Override
+    public String toString(){
+        return expression;
+    }
+}
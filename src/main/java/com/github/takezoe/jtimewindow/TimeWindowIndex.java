@@ -0,0 +1,298 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An index of time windows which answers which windows contain an instant or overlap a window
+ * in <code>O(log n + k)</code>.
+ * <p>
+ * Windows are kept in an AVL tree ordered by their start, and each node is augmented with the maximum end
+ * of its subtree. Nodes are immutable, and an update copies only the nodes on the path from the root and
+ * publishes a new root. So queries are safe for concurrent readers without locking, and updates are serialized.
+ */
+public final class TimeWindowIndex {
+
+    private static final class Node {
+        final TimeWindow window;
+        final long start;
+        final long end;
+        final Node left;
+        final Node right;
+        final int height;
+        final int size;
+        final long maxEnd;
+
+        Node(TimeWindow window, long start, long end, Node left, Node right) {
+            this.window = window;
+            this.start = start;
+            this.end = end;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+            this.maxEnd = Math.max(end, Math.max(maxEnd(left), maxEnd(right)));
+        }
+
+        Node with(Node left, Node right) {
+            return new Node(window, start, end, left, right);
+        }
+    }
+
+    private volatile Node root;
+
+    public TimeWindowIndex() {
+        this(Collections.<TimeWindow>emptyList());
+    }
+
+    /**
+     * Builds an index of the given windows in <code>O(n log n)</code>.
+     */
+    public TimeWindowIndex(Collection<TimeWindow> windows) {
+        this.root = build(sort(windows.toArray(new TimeWindow[0])), 0, windows.size());
+    }
+
+    private static TimeWindow[] sort(TimeWindow[] windows) {
+        Arrays.sort(windows, Comparator.comparingLong(TimeWindow::startEpochMillis).thenComparingLong(TimeWindow::endEpochMillis));
+        return windows;
+    }
+
+    // Builds a balanced tree from windows sorted by start and end
+    private static Node build(TimeWindow[] sorted, int low, int high) {
+        if (low >= high) {
+            return null;
+        }
+        int mid = (low + high) >>> 1;
+        TimeWindow w = sorted[mid];
+        return new Node(w, w.startEpochMillis(), w.endEpochMillis(), build(sorted, low, mid), build(sorted, mid + 1, high));
+    }
+
+    private static int height(Node node) {
+        return (node == null) ? 0 : node.height;
+    }
+
+    private static int size(Node node) {
+        return (node == null) ? 0 : node.size;
+    }
+
+    private static long maxEnd(Node node) {
+        return (node == null) ? Long.MIN_VALUE : node.maxEnd;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Adds a window in <code>O(log n)</code>.
+     */
+    public synchronized void add(TimeWindow window) {
+        root = insert(root, window, window.startEpochMillis(), window.endEpochMillis());
+    }
+
+    /**
+     * Adds the windows at once. This rebuilds the tree in <code>O(n + m log m)</code> for <code>m</code> windows,
+     * which is faster than adding them one by one if <code>m</code> is not small compared to the size of the index.
+     */
+    public synchronized void addAll(Collection<TimeWindow> windows) {
+        TimeWindow[] added = sort(windows.toArray(new TimeWindow[0]));
+        TimeWindow[] current = new TimeWindow[size(root)];
+        collectAll(root, current, 0);
+
+        TimeWindow[] merged = new TimeWindow[current.length + added.length];
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < merged.length; k++) {
+            // Added windows go after the windows which have the same start and end as add() does
+            if (j >= added.length || (i < current.length && compare(current[i].startEpochMillis(),
+                    current[i].endEpochMillis(), added[j].startEpochMillis(), added[j].endEpochMillis()) <= 0)) {
+                merged[k] = current[i++];
+            } else {
+                merged[k] = added[j++];
+            }
+        }
+        root = build(merged, 0, merged.length);
+    }
+
+    /**
+     * Removes a window which has the same start and end instants as the given window in <code>O(log n)</code>.
+     * Returns false if there is no such window.
+     */
+    public synchronized boolean remove(TimeWindow window) {
+        Node current = root;
+        Node updated = delete(current, window.startEpochMillis(), window.endEpochMillis());
+        if (updated == current) {
+            return false;
+        }
+        root = updated;
+        return true;
+    }
+
+    private static int compare(long start1, long end1, long start2, long end2) {
+        int c = Long.compare(start1, start2);
+        return (c != 0) ? c : Long.compare(end1, end2);
+    }
+
+    // Windows which have the same start and end go to the right, i.e. after the existing ones
+    private static Node insert(Node node, TimeWindow window, long start, long end) {
+        if (node == null) {
+            return new Node(window, start, end, null, null);
+        }
+        if (compare(start, end, node.start, node.end) < 0) {
+            return balance(node.with(insert(node.left, window, start, end), node.right));
+        }
+        return balance(node.with(node.left, insert(node.right, window, start, end)));
+    }
+
+    // Returns the given node itself if there is no window to delete
+    private static Node delete(Node node, long start, long end) {
+        if (node == null) {
+            return null;
+        }
+        int c = compare(start, end, node.start, node.end);
+        if (c < 0) {
+            Node left = delete(node.left, start, end);
+            return (left == node.left) ? node : balance(node.with(left, node.right));
+        }
+        if (c > 0) {
+            Node right = delete(node.right, start, end);
+            return (right == node.right) ? node : balance(node.with(node.left, right));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node min = node.right;
+        while (min.left != null) {
+            min = min.left;
+        }
+        return balance(min.with(node.left, deleteMin(node.right)));
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.with(deleteMin(node.left), node.right));
+    }
+
+    private static Node balance(Node node) {
+        int factor = height(node.left) - height(node.right);
+        if (factor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node = node.with(rotateLeft(node.left), node.right);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node = node.with(node.left, rotateRight(node.right));
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        return left.with(left.left, node.with(left.right, node.right));
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        return right.with(node.with(node.left, right.left), right.right);
+    }
+
+    // Collects windows which satisfy start < queryEnd && end > queryStart in the order of start
+    private static void collect(Node node, long queryStart, long queryEnd, List<TimeWindow> result) {
+        while (node != null && node.maxEnd > queryStart) {
+            collect(node.left, queryStart, queryEnd, result);
+            if (node.start >= queryEnd) {
+                return;
+            }
+            if (node.end > queryStart) {
+                result.add(node.window);
+            }
+            node = node.right;
+        }
+    }
+
+    private static boolean any(Node node, long queryStart, long queryEnd) {
+        while (node != null && node.maxEnd > queryStart) {
+            if (node.start < queryEnd && node.end > queryStart) {
+                return true;
+            }
+            if (any(node.left, queryStart, queryEnd)) {
+                return true;
+            }
+            if (node.start >= queryEnd) {
+                return false;
+            }
+            node = node.right;
+        }
+        return false;
+    }
+
+    private static int collectAll(Node node, TimeWindow[] result, int i) {
+        if (node == null) {
+            return i;
+        }
+        i = collectAll(node.left, result, i);
+        result[i++] = node.window;
+        return collectAll(node.right, result, i);
+    }
+
+    /**
+     * Returns windows which contain the given instant, i.e. <code>start &lt;= t &lt; end</code>, in the order of start.
+     */
+    public List<TimeWindow> containing(long epochMillis) {
+        List<TimeWindow> result = new ArrayList<>();
+        collect(root, epochMillis, epochMillis + 1, result);
+        return result;
+    }
+
+    public List<TimeWindow> containing(ZonedDateTime t) {
+        return containing(TimeWindow.toEpochMillis(t));
+    }
+
+    /**
+     * Returns windows which intersect with the given window in the order of start.
+     */
+    public List<TimeWindow> overlapping(TimeWindow window) {
+        List<TimeWindow> result = new ArrayList<>();
+        collect(root, window.startEpochMillis(), window.endEpochMillis(), result);
+        return result;
+    }
+
+    /**
+     * Returns true if any window contains the given instant. This doesn't allocate anything.
+     */
+    public boolean isCovered(long epochMillis) {
+        return any(root, epochMillis, epochMillis + 1);
+    }
+
+    public boolean intersectsWith(TimeWindow window) {
+        return any(root, window.startEpochMillis(), window.endEpochMillis());
+    }
+
+    /**
+     * Returns all windows in the order of start.
+     */
+    public List<TimeWindow> toList() {
+        Node node = root;
+        TimeWindow[] windows = new TimeWindow[size(node)];
+        collectAll(node, windows, 0);
+        return Collections.unmodifiableList(Arrays.asList(windows));
+    }
+}
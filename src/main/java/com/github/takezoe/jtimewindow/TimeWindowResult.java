@@ -0,0 +1,44 @@
+package com.github.takezoe.jtimewindow;
+
+/**
+ * The result of parsing an expression in a batch, which holds either the window or the error.
+ */
+public final class TimeWindowResult {
+
+    private final String expression;
+    private final TimeWindow window;
+    private final RuntimeException error;
+
+    TimeWindowResult(String expression, TimeWindow window, RuntimeException error) {
+        this.expression = expression;
+        this.window = window;
+        this.error = error;
+    }
+
+    public String getExpression(){
+        return this.expression;
+    }
+
+    public boolean isSuccess(){
+        return error == null;
+    }
+
+    /**
+     * Returns the parsed window, or null if the expression failed.
+     */
+    public TimeWindow getWindow(){
+        return this.window;
+    }
+
+    /**
+     * Returns the error of the expression, or null if it succeeded.
+     */
+    public RuntimeException getError(){
+        return this.error;
+    }
+
+    @Override
+    public String toString(){
+        return expression + ": " + (isSuccess() ? window.toString() : error.getMessage());
+    }
+}
@@ -0,0 +1,306 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An immutable set of time windows normalized into sorted, non-overlapping and non-adjacent windows.
+ * The windows are stored as a primitive array of boundaries <code>[start0, end0, start1, end1, ...]</code>,
+ * and set operations are linear-time merges of the boundary arrays. Windows are returned at the offset of the zone
+ * at each boundary, so a region zone gives the right offsets on both sides of a transition.
+ */
+public final class TimeWindowSet implements Iterable<TimeWindow> {
+
+    private static final int UNION = 0;
+    private static final int INTERSECT = 1;
+    private static final int SUBTRACT = 2;
+
+    private final long[] bounds;
+    private final ZoneId zone;
+
+    private TimeWindowSet(long[] bounds, ZoneId zone) {
+        this.bounds = bounds;
+        this.zone = zone.normalized();
+    }
+
+    public static TimeWindowSet empty(ZoneId zone) {
+        return new TimeWindowSet(new long[0], zone);
+    }
+
+    public static TimeWindowSet of(TimeWindow... windows) {
+        return of(Arrays.asList(windows));
+    }
+
+    /**
+     * Creates a set from the given windows. Windows are returned at the zone of the first window.
+     */
+    public static TimeWindowSet of(Collection<TimeWindow> windows) {
+        ZoneId zone = windows.isEmpty() ? Constants.UTC : windows.iterator().next().getStart().getZone();
+        return of(zone, windows);
+    }
+
+    public static TimeWindowSet of(ZoneId zone, Collection<TimeWindow> windows) {
+        long[] bounds = new long[windows.size() * 2];
+        int i = 0;
+        for (TimeWindow w : windows) {
+            bounds[i++] = w.startEpochMillis();
+            bounds[i++] = w.endEpochMillis();
+        }
+        return ofBounds(zone, bounds);
+    }
+
+    /**
+     * Creates a set from pairs of epoch millis <code>[start0, end0, start1, end1, ...]</code> in any order.
+     */
+    public static TimeWindowSet ofBounds(ZoneId zone, long... bounds) {
+        if (bounds.length % 2 != 0) {
+            throw new IllegalArgumentException("Bounds must be pairs of start and end: " + bounds.length);
+        }
+        int n = bounds.length / 2;
+        long[] starts = new long[n];
+        long[] ends = new long[n];
+        boolean sorted = true;
+        for (int i = 0; i < n; i++) {
+            starts[i] = bounds[i * 2];
+            ends[i] = bounds[i * 2 + 1];
+            sorted = sorted && (i == 0 || starts[i - 1] <= starts[i]);
+        }
+        if (!sorted) {
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(bounds[a * 2], bounds[b * 2]));
+            for (int i = 0; i < n; i++) {
+                starts[i] = bounds[order[i] * 2];
+                ends[i] = bounds[order[i] * 2 + 1];
+            }
+        }
+
+        long[] normalized = new long[bounds.length];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            long start = starts[i];
+            long end = ends[i];
+            if (start >= end) {
+                continue;
+            }
+            if (size > 0 && start <= normalized[size - 1]) {
+                normalized[size - 1] = Math.max(normalized[size - 1], end);
+            } else {
+                normalized[size++] = start;
+                normalized[size++] = end;
+            }
+        }
+        return new TimeWindowSet(Arrays.copyOf(normalized, size), zone);
+    }
+
+    /**
+     * Returns the zone offset at the start of the first window, or at the current time if this set is empty.
+     */
+    public ZoneOffset getZone() {
+        Instant instant = isEmpty() ? Instant.now() : Instant.ofEpochMilli(bounds[0]);
+        return zone.getRules().getOffset(instant);
+    }
+
+    public ZoneId getZoneId() {
+        return this.zone;
+    }
+
+    public int size() {
+        return bounds.length / 2;
+    }
+
+    public boolean isEmpty() {
+        return bounds.length == 0;
+    }
+
+    public long startEpochMillis(int i) {
+        return bounds[i * 2];
+    }
+
+    public long endEpochMillis(int i) {
+        return bounds[i * 2 + 1];
+    }
+
+    public TimeWindow get(int i) {
+        return new TimeWindow(toZonedDateTime(bounds[i * 2]), toZonedDateTime(bounds[i * 2 + 1]));
+    }
+
+    private ZonedDateTime toZonedDateTime(long epochMillis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+
+    /**
+     * Returns the total length of the windows in milliseconds.
+     */
+    public long totalMillis() {
+        long total = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            total += bounds[i + 1] - bounds[i];
+        }
+        return total;
+    }
+
+    public boolean contains(long epochMillis) {
+        // The number of boundaries <= epochMillis is odd if it is inside of a window
+        int low = 0;
+        int high = bounds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bounds[mid] <= epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return (low & 1) == 1;
+    }
+
+    public boolean contains(ZonedDateTime t) {
+        return contains(TimeWindow.toEpochMillis(t));
+    }
+
+    public TimeWindowSet union(TimeWindowSet other) {
+        return merge(other.bounds, UNION);
+    }
+
+    public TimeWindowSet union(TimeWindow window) {
+        return union(of(zone, Arrays.asList(window)));
+    }
+
+    public TimeWindowSet intersect(TimeWindowSet other) {
+        return merge(other.bounds, INTERSECT);
+    }
+
+    public TimeWindowSet intersect(TimeWindow window) {
+        return intersect(of(zone, Arrays.asList(window)));
+    }
+
+    public TimeWindowSet subtract(TimeWindowSet other) {
+        return merge(other.bounds, SUBTRACT);
+    }
+
+    public TimeWindowSet subtract(TimeWindow window) {
+        return subtract(of(zone, Arrays.asList(window)));
+    }
+
+    /**
+     * Returns the gaps of this set within the given window.
+     */
+    public TimeWindowSet complement(TimeWindow within) {
+        return of(zone, Arrays.asList(within)).subtract(this);
+    }
+
+    /**
+     * Merges windows whose gap is less than or equal to the given length.
+     */
+    public TimeWindowSet coalesce(long maxGapMillis) {
+        if (bounds.length == 0) {
+            return this;
+        }
+        long[] result = new long[bounds.length];
+        int size = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (size > 0 && bounds[i] - result[size - 1] <= maxGapMillis) {
+                result[size - 1] = bounds[i + 1];
+            } else {
+                result[size++] = bounds[i];
+                result[size++] = bounds[i + 1];
+            }
+        }
+        return new TimeWindowSet(Arrays.copyOf(result, size), zone);
+    }
+
+    // Sweeps boundaries of both sets in order, and emits a boundary whenever the result flips
+    private TimeWindowSet merge(long[] other, int op) {
+        long[] a = this.bounds;
+        long[] b = other;
+        long[] result = new long[a.length + b.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        boolean inside = false;
+        while (i < a.length || j < b.length) {
+            long x;
+            if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+                x = a[i];
+            } else {
+                x = b[j];
+            }
+            while (i < a.length && a[i] == x) {
+                i++;
+            }
+            while (j < b.length && b[j] == x) {
+                j++;
+            }
+            // We are inside of a window when an odd number of boundaries have been passed
+            boolean inA = (i & 1) == 1;
+            boolean inB = (j & 1) == 1;
+            boolean in;
+            switch (op) {
+                case UNION:
+                    in = inA || inB;
+                    break;
+                case INTERSECT:
+                    in = inA && inB;
+                    break;
+                default:
+                    in = inA && !inB;
+                    break;
+            }
+            if (in != inside) {
+                result[size++] = x;
+                inside = in;
+            }
+        }
+        return new TimeWindowSet(Arrays.copyOf(result, size), zone);
+    }
+
+    public List<TimeWindow> toList() {
+        return new AbstractList<TimeWindow>() {
+            @Override
+            public TimeWindow get(int index) {
+                return TimeWindowSet.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return TimeWindowSet.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Iterator<TimeWindow> iterator() {
+        return toList().iterator();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TimeWindowSet)) {
+            return false;
+        }
+        return Arrays.equals(bounds, ((TimeWindowSet) o).bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Lazily splits a time window into sub-windows on the grid of a {@link TimeWindowUnit}.
+ * The k-th boundary is computed directly from the grid, so the range can be split evenly for parallel streams.
+ * <p>
+ * The grid starts at the truncated start of the window. If the time of day is kept, the grid of a week or a month
+ * starts at the time of day of the start instead, as {@link TimeWindow#splitIntoWeeks()} and
+ * {@link TimeWindow#splitIntoMonths()} do.
+ */
+final class TimeWindowSpliterator implements Spliterator<TimeWindow> {
+
+    private final ZonedDateTime start;
+    private final ZonedDateTime end;
+    private final ZonedDateTime grid;
+    private final TimeWindowUnit unit;
+    private final long step;
+    private final BusinessCalendar calendar;
+    // Only used for units which have a fixed length under a fixed zone offset
+    private final long gridMillis;
+    private final long stepMillis;
+
+    private final long count;
+    private long index;
+    private final long fence;
+    private ZonedDateTime cursor;
+
+    TimeWindowSpliterator(TimeWindow window, TimeWindowUnit unit, long step) {
+        this(window, unit, step, BusinessCalendar.WEEKDAYS, false);
+    }
+
+    TimeWindowSpliterator(TimeWindow window, TimeWindowUnit unit, long step, BusinessCalendar calendar, boolean keepTimeOfDay) {
+        if (step <= 0) {
+            throw new IllegalArgumentException("Invalid split step " + step + " for range " + window);
+        }
+        this.start = window.getStart();
+        this.end = window.getEnd();
+        this.grid = keepTimeOfDay ? unit.truncate(start, calendar).with(start.toLocalTime()) : unit.truncate(start, calendar);
+        this.unit = unit;
+        this.step = step;
+        this.calendar = calendar;
+        this.gridMillis = TimeWindow.toEpochMillis(grid);
+        this.stepMillis = (unit.fixedMillis() > 0 && grid.getZone() instanceof ZoneOffset) ? unit.fixedMillis() * step : 0;
+        this.count = start.isBefore(end) ? countWindows() : 0;
+        this.index = 0;
+        this.fence = count;
+    }
+
+    private TimeWindowSpliterator(TimeWindowSpliterator parent, long index, long fence) {
+        this.start = parent.start;
+        this.end = parent.end;
+        this.grid = parent.grid;
+        this.unit = parent.unit;
+        this.step = parent.step;
+        this.calendar = parent.calendar;
+        this.gridMillis = parent.gridMillis;
+        this.stepMillis = parent.stepMillis;
+        this.count = parent.count;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    /**
+     * Returns the start of the k-th sub-window. The first one starts at the start of the window.
+     */
+    ZonedDateTime boundary(long k) {
+        if (k == 0) {
+            return start;
+        }
+        if (stepMillis > 0) {
+            return ZonedDateTime.ofInstant(Instant.ofEpochMilli(gridMillis + k * stepMillis), grid.getZone());
+        }
+        return unit.increment(grid, k * step, calendar);
+    }
+
+    long gridMillis() {
+        return gridMillis;
+    }
+
+    /**
+     * Returns the length of a step in milliseconds, or 0 if boundaries can't be computed arithmetically.
+     */
+    long stepMillis() {
+        return stepMillis;
+    }
+
+    // The smallest k such that boundary(k) >= end
+    private long countWindows() {
+        if (stepMillis > 0) {
+            long endMillis = end.toEpochSecond() * 1000 + (end.getNano() + 999_999) / 1000_000;
+            return Math.floorDiv(endMillis - gridMillis + stepMillis - 1, stepMillis);
+        }
+        long high = 1;
+        while (boundary(high).isBefore(end)) {
+            high *= 2;
+        }
+        long low = high / 2;
+        while (high - low > 1) {
+            long mid = (low + high) >>> 1;
+            if (boundary(mid).isBefore(end)) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return high;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super TimeWindow> action) {
+        if (index >= fence) {
+            return false;
+        }
+        ZonedDateTime s = (cursor != null) ? cursor : boundary(index);
+        ZonedDateTime e = (index + 1 < count) ? boundary(index + 1) : end;
+        index++;
+        cursor = e;
+        action.accept(new TimeWindow(s, e));
+        return true;
+    }
+
+    @Override
+    public Spliterator<TimeWindow> trySplit() {
+        long mid = (index + fence) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+        TimeWindowSpliterator prefix = new TimeWindowSpliterator(this, index, mid);
+        prefix.cursor = this.cursor;
+        this.index = mid;
+        this.cursor = null;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+    }
+}
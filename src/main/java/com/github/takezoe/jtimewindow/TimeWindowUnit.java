@@ -1,12 +1,14 @@
 package com.github.takezoe.jtimewindow;
 
 import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
 
 public enum TimeWindowUnit {
 
-    Second("s") {
+    Second("s", 1000L) {
         @Override public ZonedDateTime truncate(ZonedDateTime t){
             return t.truncatedTo(ChronoUnit.SECONDS);
         }
@@ -15,7 +17,7 @@ public enum TimeWindowUnit {
             return a.plus(v, ChronoUnit.SECONDS);
         }
     },
-    Minute("m") {
+    Minute("m", 60 * 1000L) {
         @Override public ZonedDateTime truncate(ZonedDateTime t){
             return t.truncatedTo(ChronoUnit.MINUTES);
         }
@@ -24,7 +26,7 @@ public enum TimeWindowUnit {
             return a.plus(v, ChronoUnit.MINUTES);
         }
     },
-    Hour("h") {
+    Hour("h", 60 * 60 * 1000L) {
         @Override public ZonedDateTime truncate(ZonedDateTime t){
             return t.truncatedTo(ChronoUnit.HOURS);
         }
@@ -33,7 +35,7 @@ public enum TimeWindowUnit {
             return a.plus(v, ChronoUnit.HOURS);
         }
     },
-    Day("d") {
+    Day("d", CivilDate.MILLIS_PER_DAY) {
         @Override public ZonedDateTime truncate(ZonedDateTime t){
             return t.truncatedTo(ChronoUnit.DAYS);
         }
@@ -42,7 +44,7 @@ public enum TimeWindowUnit {
             return a.plus(v, ChronoUnit.DAYS);
         }
     },
-    Week("w") {
+    Week("w", 7 * CivilDate.MILLIS_PER_DAY) {
         @Override public ZonedDateTime truncate(ZonedDateTime t){
             return t.truncatedTo(ChronoUnit.DAYS).with(DayOfWeek.MONDAY);
         }
@@ -50,8 +52,13 @@ public enum TimeWindowUnit {
         public ZonedDateTime increment(ZonedDateTime a, long v) {
             return a.plus(v, ChronoUnit.WEEKS);
         }
+        @Override long truncateLocal(long localMillis){
+            long epochDay = Math.floorDiv(localMillis, CivilDate.MILLIS_PER_DAY);
+            // 1970-01-01 is Thursday
+            return (epochDay - Math.floorMod(epochDay + 3, 7)) * CivilDate.MILLIS_PER_DAY;
+        }
     },
-    Month("M") {
+    Month("M", 0) {
         @Override public ZonedDateTime truncate(ZonedDateTime t){
             return t.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
         }
@@ -59,8 +66,14 @@ public enum TimeWindowUnit {
         public ZonedDateTime increment(ZonedDateTime a, long v) {
             return a.plus(v, ChronoUnit.MONTHS);
         }
+        @Override long truncateLocal(long localMillis){
+            return CivilDate.firstDayOfMonth(Math.floorDiv(localMillis, CivilDate.MILLIS_PER_DAY)) * CivilDate.MILLIS_PER_DAY;
+        }
+        @Override long incrementLocal(long localMillis, long v){
+            return plusMonths(localMillis, v);
+        }
     },
-    Quarter("q") {
+    Quarter("q", 0) {
         @Override public ZonedDateTime truncate(ZonedDateTime t){
             int quarter = ((t.getMonthValue() - 1) / 3);
             int month = 3 * quarter;
@@ -73,8 +86,19 @@ public enum TimeWindowUnit {
             long targetMonth = (3 * quarter) + 1;
             return a.plus(targetMonth - currentMonth, ChronoUnit.MONTHS);
         }
+        @Override long truncateLocal(long localMillis){
+            long date = CivilDate.fromEpochDay(Math.floorDiv(localMillis, CivilDate.MILLIS_PER_DAY));
+            int month = CivilDate.month(date);
+            return CivilDate.toEpochDay(CivilDate.year(date), month - (month - 1) % 3, 1) * CivilDate.MILLIS_PER_DAY;
+        }
+        @Override long incrementLocal(long localMillis, long v){
+            int currentMonth = CivilDate.month(CivilDate.fromEpochDay(Math.floorDiv(localMillis, CivilDate.MILLIS_PER_DAY)));
+            long quarter = ((currentMonth - 1) / 3) + v;
+            long targetMonth = (3 * quarter) + 1;
+            return plusMonths(localMillis, targetMonth - currentMonth);
+        }
     },
-    Year("y") {
+    Year("y", 0) {
         @Override public ZonedDateTime truncate(ZonedDateTime t){
             return t.withDayOfYear(1).truncatedTo(ChronoUnit.DAYS);
         }
@@ -82,15 +106,173 @@ public enum TimeWindowUnit {
         public ZonedDateTime increment(ZonedDateTime a, long v) {
             return a.plus(v, ChronoUnit.YEARS);
         }
+        @Override long truncateLocal(long localMillis){
+            long date = CivilDate.fromEpochDay(Math.floorDiv(localMillis, CivilDate.MILLIS_PER_DAY));
+            return CivilDate.toEpochDay(CivilDate.year(date), 1, 1) * CivilDate.MILLIS_PER_DAY;
+        }
+        @Override long incrementLocal(long localMillis, long v){
+            return plusMonths(localMillis, 12 * v);
+        }
+    },
+    /**
+     * Business days of a {@link BusinessCalendar}. A business day lasts until the start of the next business day,
+     * so a weekend belongs to the preceding Friday.
+     * <p>
+     * Methods which take no calendar use {@link BusinessCalendar#WEEKDAYS}, which has no holidays. Use the overloads
+     * which take a calendar, e.g. {@link TimeWindow#splitInto(TimeWindowUnit, long, BusinessCalendar)}, or give the
+     * calendar to the builder for expressions, aggregators and watermark trackers.
+     * <p>
+     * This constant is declared after {@link #Year} so that the ordinals of the existing units are kept.
+     * It's not ordered by length among the other units.
+     */
+    BusinessDay("b", 0) {
+        @Override public ZonedDateTime truncate(ZonedDateTime t){
+            return truncate(t, BusinessCalendar.WEEKDAYS);
+        }
+        @Override
+        public ZonedDateTime increment(ZonedDateTime a, long v) {
+            return increment(a, v, BusinessCalendar.WEEKDAYS);
+        }
+        @Override public ZonedDateTime truncate(ZonedDateTime t, BusinessCalendar calendar){
+            return calendar.truncate(t);
+        }
+        @Override
+        public ZonedDateTime increment(ZonedDateTime a, long v, BusinessCalendar calendar) {
+            return calendar.increment(a, v);
+        }
+        @Override long truncateLocal(long localMillis){
+            return truncateLocal(localMillis, BusinessCalendar.WEEKDAYS);
+        }
+        @Override long incrementLocal(long localMillis, long v){
+            return incrementLocal(localMillis, v, BusinessCalendar.WEEKDAYS);
+        }
+        @Override long truncateLocal(long localMillis, BusinessCalendar calendar){
+            return calendar.truncateLocal(localMillis);
+        }
+        @Override long incrementLocal(long localMillis, long v, BusinessCalendar calendar){
+            return calendar.incrementLocal(localMillis, v);
+        }
     };
 
+    private static final TimeWindowUnit[] units = values();
+
     private String symbol;
-    TimeWindowUnit(String symbol){
+    private final long fixedMillis;
+    TimeWindowUnit(String symbol, long fixedMillis){
         this.symbol = symbol;
+        this.fixedMillis = fixedMillis;
     }
     public abstract ZonedDateTime truncate(ZonedDateTime t);
     public abstract ZonedDateTime increment(ZonedDateTime a, long v);
 
+    /**
+     * Same as {@link #truncate(ZonedDateTime)}, but business days are of the given calendar.
+     */
+    public ZonedDateTime truncate(ZonedDateTime t, BusinessCalendar calendar){
+        return truncate(t);
+    }
+
+    public ZonedDateTime increment(ZonedDateTime a, long v, BusinessCalendar calendar){
+        return increment(a, v);
+    }
+
+    /**
+     * Same as {@link #truncate(ZonedDateTime)} but works on epoch milliseconds without allocation.
+     */
+    public long truncateMillis(long epochMillis, ZoneOffset zone){
+        long offsetMillis = zone.getTotalSeconds() * 1000L;
+        return truncateLocal(epochMillis + offsetMillis) - offsetMillis;
+    }
+
+    /**
+     * Same as {@link #increment(ZonedDateTime, long)} but works on epoch milliseconds without allocation.
+     */
+    public long incrementMillis(long epochMillis, long v, ZoneOffset zone){
+        if(fixedMillis > 0){
+            return epochMillis + v * fixedMillis;
+        }
+        long offsetMillis = zone.getTotalSeconds() * 1000L;
+        return incrementLocal(epochMillis + offsetMillis, v) - offsetMillis;
+    }
+
+    /**
+     * Same as {@link #truncate(ZonedDateTime)} on a region zone. The offset and the start of the truncated local time
+     * are looked up from the transitions of the zone cached in {@link ZoneRegistry}.
+     */
+    public long truncateMillis(long epochMillis, ZoneId zone){
+        return truncateMillis(epochMillis, zone, BusinessCalendar.WEEKDAYS);
+    }
+
+    /**
+     * Same as {@link #truncateMillis(long, ZoneId)}, but business days are of the given calendar.
+     */
+    public long truncateMillis(long epochMillis, ZoneId zone, BusinessCalendar calendar){
+        if(zone instanceof ZoneOffset){
+            long offsetMillis = ((ZoneOffset) zone).getTotalSeconds() * 1000L;
+            return truncateLocal(epochMillis + offsetMillis, calendar) - offsetMillis;
+        }
+        ZoneTransitions transitions = ZoneRegistry.transitionsOf(zone);
+        int offsetSeconds = transitions.offsetSecondsAt(epochMillis);
+        return transitions.localToEpochMillis(truncateLocal(epochMillis + offsetSeconds * 1000L, calendar), offsetSeconds);
+    }
+
+    /**
+     * Same as {@link #increment(ZonedDateTime, long)} on a region zone. Seconds, minutes and hours are added
+     * to the instant, and larger units are added to the local time.
+     */
+    public long incrementMillis(long epochMillis, long v, ZoneId zone){
+        return incrementMillis(epochMillis, v, zone, BusinessCalendar.WEEKDAYS);
+    }
+
+    /**
+     * Same as {@link #incrementMillis(long, long, ZoneId)}, but business days are of the given calendar.
+     */
+    public long incrementMillis(long epochMillis, long v, ZoneId zone, BusinessCalendar calendar){
+        if(zone instanceof ZoneOffset){
+            if(fixedMillis > 0){
+                return epochMillis + v * fixedMillis;
+            }
+            long offsetMillis = ((ZoneOffset) zone).getTotalSeconds() * 1000L;
+            return incrementLocal(epochMillis + offsetMillis, v, calendar) - offsetMillis;
+        }
+        if(fixedMillis > 0 && fixedMillis < CivilDate.MILLIS_PER_DAY){
+            return epochMillis + v * fixedMillis;
+        }
+        ZoneTransitions transitions = ZoneRegistry.transitionsOf(zone);
+        int offsetSeconds = transitions.offsetSecondsAt(epochMillis);
+        return transitions.localToEpochMillis(incrementLocal(epochMillis + offsetSeconds * 1000L, v, calendar), offsetSeconds);
+    }
+
+    /**
+     * Returns the length of this unit in milliseconds, or 0 if the length depends on the calendar.
+     */
+    long fixedMillis(){
+        return fixedMillis;
+    }
+
+    // Operations on the local time line, i.e. epoch milliseconds shifted by the zone offset
+    long truncateLocal(long localMillis){
+        return Math.floorDiv(localMillis, fixedMillis) * fixedMillis;
+    }
+
+    long incrementLocal(long localMillis, long v){
+        return localMillis + v * fixedMillis;
+    }
+
+    long truncateLocal(long localMillis, BusinessCalendar calendar){
+        return truncateLocal(localMillis);
+    }
+
+    long incrementLocal(long localMillis, long v, BusinessCalendar calendar){
+        return incrementLocal(localMillis, v);
+    }
+
+    private static long plusMonths(long localMillis, long months){
+        long epochDay = Math.floorDiv(localMillis, CivilDate.MILLIS_PER_DAY);
+        long millisOfDay = localMillis - epochDay * CivilDate.MILLIS_PER_DAY;
+        return CivilDate.plusMonths(epochDay, months) * CivilDate.MILLIS_PER_DAY + millisOfDay;
+    }
+
     public static TimeWindowUnit of(String symbol){
         for(TimeWindowUnit unit: values()){
             if(unit.symbol.equals(symbol)){
@@ -100,4 +282,13 @@ public enum TimeWindowUnit {
         throw new IllegalArgumentException("Unknown unit type " + symbol);
     }
 
+    static TimeWindowUnit of(char symbol){
+        for(TimeWindowUnit unit: units){
+            if(unit.symbol.length() == 1 && unit.symbol.charAt(0) == symbol){
+                return unit;
+            }
+        }
+        return null;
+    }
+
 }
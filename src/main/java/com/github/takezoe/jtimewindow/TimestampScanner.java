@@ -0,0 +1,180 @@
+package com.github.takezoe.jtimewindow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Extracts the timestamp of each line from ASCII log files as epoch millis, without decoding lines into strings.
+ * Files are memory-mapped in chunks which are split at line boundaries.
+ * <p>
+ * The timestamp is the field at the given index of each line separated by the delimiter (a tab by default),
+ * and is parsed by {@link FastTimeParser}. Lines whose timestamp can't be parsed are skipped.
+ */
+public final class TimestampScanner {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private final ZoneOffset zone;
+    private final byte delimiter;
+    private final int field;
+    private final int chunkSize;
+
+    public TimestampScanner(ZoneOffset zone) {
+        this(zone, (byte) '\t', 0, DEFAULT_CHUNK_SIZE);
+    }
+
+    private TimestampScanner(ZoneOffset zone, byte delimiter, int field, int chunkSize) {
+        this.zone = zone;
+        this.delimiter = delimiter;
+        this.field = field;
+        this.chunkSize = chunkSize;
+    }
+
+    public TimestampScanner withDelimiter(char delimiter) {
+        if (delimiter > 0x7F || delimiter == '\n') {
+            throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+        }
+        return new TimestampScanner(zone, (byte) delimiter, field, chunkSize);
+    }
+
+    /**
+     * Sets the 0-origin index of the timestamp field.
+     */
+    public TimestampScanner withField(int field) {
+        if (field < 0) {
+            throw new IllegalArgumentException("Invalid field: " + field);
+        }
+        return new TimestampScanner(zone, delimiter, field, chunkSize);
+    }
+
+    /**
+     * Sets the size of each mapped region. A region is extended if a line doesn't fit into it.
+     */
+    public TimestampScanner withChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        return new TimestampScanner(zone, delimiter, field, chunkSize);
+    }
+
+    /**
+     * Passes the timestamp of each line to the consumer, and returns the number of passed timestamps.
+     */
+    public long scan(Path file, LongConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            long count = 0;
+            long mapSize = chunkSize;
+            while (position < size) {
+                long length = Math.min(mapSize, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean last = position + length == size;
+                int end = last ? (int) length : lastLineEnd(buffer, (int) length);
+                if (end < 0) {
+                    // No line ends in this region
+                    if (mapSize >= Integer.MAX_VALUE) {
+                        throw new IOException("Too long line at " + position + " in " + file);
+                    }
+                    mapSize = Math.min(mapSize * 2, Integer.MAX_VALUE);
+                    continue;
+                }
+                count += scan(buffer, 0, end, consumer);
+                position += end;
+                mapSize = chunkSize;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Returns the timestamps of all lines in the file.
+     */
+    public long[] scan(Path file) throws IOException {
+        LongArrayBuilder result = new LongArrayBuilder();
+        scan(file, result);
+        return result.toArray();
+    }
+
+    /**
+     * Scans lines between the position and the limit of the buffer. The position of the buffer is not changed.
+     */
+    public long scan(ByteBuffer buffer, LongConsumer consumer) {
+        return scan(buffer, buffer.position(), buffer.limit(), consumer);
+    }
+
+    private long scan(ByteBuffer buffer, int from, int to, LongConsumer consumer) {
+        AsciiSequence sequence = new AsciiSequence();
+        long count = 0;
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            int fieldIndex = 0;
+            int fieldStart = lineStart;
+            int fieldEnd = -1;
+            for (; lineEnd < to; lineEnd++) {
+                byte b = buffer.get(lineEnd);
+                if (b == '\n') {
+                    break;
+                }
+                if (b == delimiter && fieldEnd < 0) {
+                    if (fieldIndex == field) {
+                        fieldEnd = lineEnd;
+                    } else {
+                        fieldIndex++;
+                        fieldStart = lineEnd + 1;
+                    }
+                }
+            }
+            if (fieldEnd < 0 && fieldIndex == field) {
+                fieldEnd = lineEnd;
+                if (fieldEnd > fieldStart && buffer.get(fieldEnd - 1) == '\r') {
+                    fieldEnd--;
+                }
+            }
+            if (fieldEnd >= 0) {
+                long millis = FastTimeParser.parseEpochMillis(sequence.reset(buffer, fieldStart, fieldEnd), 0, fieldEnd - fieldStart, zone);
+                if (millis != FastTimeParser.INVALID) {
+                    consumer.accept(millis);
+                    count++;
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return count;
+    }
+
+    // Returns the position next to the last '\n', or -1 if there is no '\n'
+    private static int lastLineEnd(ByteBuffer buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static final class LongArrayBuilder implements LongConsumer {
+        private long[] values = new long[1024];
+        private int size = 0;
+
+        @Override
+        public void accept(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the event time watermark of a stream, and emits tumbling windows on the grid of a {@link TimeWindowUnit}
+ * in order once they are closed, i.e. the watermark reaches their end.
+ * <p>
+ * The watermark is the maximum observed event time minus the allowed lateness, and never goes backwards.
+ * Only windows which have observed events are emitted, and only the start and end of the open windows are kept.
+ * Methods are synchronized, and the listener is called in the thread which advances the watermark.
+ */
+public final class WatermarkTracker {
+
+    private final TimeWindowUnit unit;
+    private final ZoneId zone;
+    private final BusinessCalendar calendar;
+    private final long allowedLatenessMillis;
+    private final Consumer<TimeWindow> listener;
+
+    private long watermark = Long.MIN_VALUE;
+    // Open windows sorted by start, which are in [head, head + size)
+    private long[] starts = new long[16];
+    private long[] ends = new long[16];
+    private int head = 0;
+    private int size = 0;
+
+    public WatermarkTracker(TimeWindowUnit unit, ZoneId zone, long allowedLatenessMillis, Consumer<TimeWindow> listener) {
+        this(unit, zone, BusinessCalendar.WEEKDAYS, allowedLatenessMillis, listener);
+    }
+
+    /**
+     * Business days of windows are of the calendar of the builder.
+     */
+    public WatermarkTracker(TimeWindowBuilder builder, TimeWindowUnit unit, long allowedLatenessMillis, Consumer<TimeWindow> listener) {
+        this(unit, builder.getZoneId(), builder.getCalendar(), allowedLatenessMillis, listener);
+    }
+
+    private WatermarkTracker(TimeWindowUnit unit, ZoneId zone, BusinessCalendar calendar, long allowedLatenessMillis,
+                             Consumer<TimeWindow> listener) {
+        if (allowedLatenessMillis < 0) {
+            throw new IllegalArgumentException("Invalid allowed lateness: " + allowedLatenessMillis);
+        }
+        this.unit = unit;
+        this.zone = zone;
+        this.calendar = calendar;
+        this.allowedLatenessMillis = allowedLatenessMillis;
+        this.listener = listener;
+    }
+
+    public synchronized long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * Returns the number of windows which have observed events but are not closed yet.
+     */
+    public synchronized int openWindows() {
+        return size;
+    }
+
+    /**
+     * Observes an event, and emits windows closed by it. Returns false if the window of the event is already closed.
+     */
+    public synchronized boolean observe(long eventMillis) {
+        long start = unit.truncateMillis(eventMillis, zone, calendar);
+        if (size == 0 || starts[head + size - 1] != start) {
+            long end = unit.incrementMillis(start, 1, zone, calendar);
+            if (end <= watermark) {
+                return false;
+            }
+            open(start, end);
+        }
+        if (eventMillis - allowedLatenessMillis > watermark) {
+            advance(eventMillis - allowedLatenessMillis);
+        }
+        return true;
+    }
+
+    /**
+     * Advances the watermark without events, e.g. by the processing time of an idle stream.
+     */
+    public synchronized void advanceTo(long watermarkMillis) {
+        if (watermarkMillis > watermark) {
+            advance(watermarkMillis);
+        }
+    }
+
+    /**
+     * Emits all open windows, e.g. at the end of the stream.
+     */
+    public synchronized void flush() {
+        if (size > 0) {
+            advance(Math.max(watermark, ends[head + size - 1]));
+        }
+    }
+
+    private void advance(long newWatermark) {
+        watermark = newWatermark;
+        while (size > 0 && ends[head] <= newWatermark) {
+            TimeWindow window = new TimeWindow(toZonedDateTime(starts[head]), toZonedDateTime(ends[head]));
+            head++;
+            size--;
+            listener.accept(window);
+        }
+        if (size == 0) {
+            head = 0;
+        }
+    }
+
+    // Inserts the window keeping the order. Events are mostly in order, so this searches from the last one.
+    private void open(long start, long end) {
+        int i = head + size;
+        while (i > head && starts[i - 1] > start) {
+            i--;
+        }
+        if (i > head && starts[i - 1] == start) {
+            return;
+        }
+        if (head + size == starts.length) {
+            if (head > 0) {
+                System.arraycopy(starts, head, starts, 0, size);
+                System.arraycopy(ends, head, ends, 0, size);
+                i -= head;
+                head = 0;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+        }
+        int tail = head + size;
+        System.arraycopy(starts, i, starts, i + 1, tail - i);
+        System.arraycopy(ends, i, ends, i + 1, tail - i);
+        starts[i] = start;
+        ends[i] = end;
+        size++;
+    }
+
+    private ZonedDateTime toZonedDateTime(long epochMillis) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+}
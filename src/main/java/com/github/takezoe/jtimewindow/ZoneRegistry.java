@@ -0,0 +1,59 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A shared cache of resolved zones and their transitions.
+ * Zone names are resolved in the same way as {@link TimeWindow#withTimeZone(String)}, i.e. {@link ZoneId#SHORT_IDS}
+ * and daylight saving time abbreviations such as PDT are accepted in addition to zone ids.
+ */
+public final class ZoneRegistry {
+
+    private static final Map<String, String> aliases;
+
+    static {
+        Map<String, String> map = new HashMap<>(ZoneId.SHORT_IDS);
+        map.put("PDT", "-07:00");
+        map.put("EDT", "-04:00");
+        map.put("CDT", "-05:00");
+        map.put("MDT", "-06:00");
+        aliases = map;
+    }
+
+    private static final ConcurrentHashMap<String, ZoneId> zones = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<ZoneId, ZoneTransitions> transitions = new ConcurrentHashMap<>();
+
+    private ZoneRegistry() {
+    }
+
+    /**
+     * Resolves the zone name. Throws {@link java.time.DateTimeException} if the name is invalid.
+     */
+    public static ZoneId zoneOf(String zoneName) {
+        ZoneId zone = zones.get(zoneName);
+        if (zone == null) {
+            // Invalid names are not cached
+            zone = ZoneId.of(aliases.getOrDefault(zoneName, zoneName));
+            ZoneId existing = zones.putIfAbsent(zoneName, zone);
+            if (existing != null) {
+                zone = existing;
+            }
+        }
+        return zone;
+    }
+
+    public static ZoneTransitions transitionsOf(ZoneId zone) {
+        ZoneTransitions t = transitions.get(zone);
+        if (t == null) {
+            t = transitions.computeIfAbsent(zone, ZoneTransitions::of);
+        }
+        return t;
+    }
+
+    public static ZoneTransitions transitionsOf(String zoneName) {
+        return transitionsOf(zoneOf(zoneName));
+    }
+}
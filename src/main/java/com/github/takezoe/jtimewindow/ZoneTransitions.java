@@ -0,0 +1,143 @@
+package com.github.takezoe.jtimewindow;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offset transitions of a zone between 1900 and 2100 kept in primitive arrays,
+ * so the offset at an instant is a binary search instead of a query to {@link ZoneRules}.
+ * Instants out of the range fall back to {@link ZoneRules}. Instances are immutable and obtained from {@link ZoneRegistry}.
+ */
+public final class ZoneTransitions {
+
+    private static final long MIN_MILLIS = ZonedDateTime.of(1900, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+    private static final long MAX_MILLIS = ZonedDateTime.of(2100, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toInstant().toEpochMilli();
+    // Never a valid offset, so the earlier offset is used in an overlap
+    private static final int NO_PREFERRED_OFFSET = Integer.MIN_VALUE;
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    // Epoch millis of transitions, and the offset seconds before the first transition followed by the one after each transition
+    private final long[] transitions;
+    private final int[] offsets;
+
+    private ZoneTransitions(ZoneId zone, ZoneRules rules, long[] transitions, int[] offsets) {
+        this.zone = zone;
+        this.rules = rules;
+        this.transitions = transitions;
+        this.offsets = offsets;
+    }
+
+    static ZoneTransitions of(ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        Instant from = Instant.ofEpochMilli(MIN_MILLIS);
+        List<ZoneOffsetTransition> list = new ArrayList<>();
+        ZoneOffsetTransition t = rules.nextTransition(from);
+        while (t != null && t.getInstant().toEpochMilli() < MAX_MILLIS) {
+            list.add(t);
+            t = rules.nextTransition(t.getInstant());
+        }
+
+        long[] transitions = new long[list.size()];
+        int[] offsets = new int[list.size() + 1];
+        offsets[0] = rules.getOffset(from).getTotalSeconds();
+        for (int i = 0; i < list.size(); i++) {
+            transitions[i] = list.get(i).getInstant().toEpochMilli();
+            offsets[i + 1] = list.get(i).getOffsetAfter().getTotalSeconds();
+        }
+        return new ZoneTransitions(zone, rules, transitions, offsets);
+    }
+
+    public ZoneId getZone() {
+        return this.zone;
+    }
+
+    /**
+     * Returns the number of transitions between 1900 and 2100.
+     */
+    public int size() {
+        return transitions.length;
+    }
+
+    public boolean isFixedOffset() {
+        return transitions.length == 0 && rules.isFixedOffset();
+    }
+
+    public int offsetSecondsAt(long epochMillis) {
+        if (epochMillis < MIN_MILLIS || epochMillis >= MAX_MILLIS) {
+            return rules.getOffset(Instant.ofEpochMilli(epochMillis)).getTotalSeconds();
+        }
+        // The number of transitions at or before epochMillis
+        int low = 0;
+        int high = transitions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transitions[mid] <= epochMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return offsets[low];
+    }
+
+    public ZoneOffset offsetAt(long epochMillis) {
+        return ZoneOffset.ofTotalSeconds(offsetSecondsAt(epochMillis));
+    }
+
+    /**
+     * Converts millis on the local time line to epoch millis in the same way as
+     * {@link ZonedDateTime#of(java.time.LocalDateTime, ZoneId)}, i.e. the earlier offset is used in an overlap.
+     */
+    public long localToEpochMillis(long localMillis) {
+        return localToEpochMillis(localMillis, NO_PREFERRED_OFFSET);
+    }
+
+    /**
+     * Converts millis on the local time line to epoch millis in the same way as
+     * {@link ZonedDateTime#ofLocal(java.time.LocalDateTime, ZoneId, ZoneOffset)}.
+     * A local time in a gap is shifted forward by the length of the gap, and the preferred offset
+     * is used in an overlap if it's valid, otherwise the earlier offset.
+     */
+    public long localToEpochMillis(long localMillis, int preferredOffsetSeconds) {
+        if (localMillis < MIN_MILLIS + CivilDate.MILLIS_PER_DAY || localMillis >= MAX_MILLIS - CivilDate.MILLIS_PER_DAY) {
+            long epochSecond = Math.floorDiv(localMillis, 1000L);
+            int nano = (int) Math.floorMod(localMillis, 1000L) * 1000_000;
+            LocalDateTime local = LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+            ZoneOffset preferred = (preferredOffsetSeconds == NO_PREFERRED_OFFSET) ? null : ZoneOffset.ofTotalSeconds(preferredOffsetSeconds);
+            return TimeWindow.toEpochMillis(ZonedDateTime.ofLocal(local, zone, preferred));
+        }
+        // The last transition whose ambiguous local range starts at or before localMillis
+        int low = 0;
+        int high = transitions.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (transitions[mid] + Math.min(offsets[mid], offsets[mid + 1]) * 1000L <= localMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int i = low - 1;
+        if (i >= 0) {
+            int before = offsets[i];
+            int after = offsets[i + 1];
+            if (localMillis < transitions[i] + Math.max(before, after) * 1000L) {
+                if (after > before) {
+                    // Gap: shifting forward by the gap and applying the offset after it equals applying the offset before it
+                    return localMillis - before * 1000L;
+                }
+                // Overlap
+                return localMillis - (preferredOffsetSeconds == after ? after : before) * 1000L;
+            }
+        }
+        return localMillis - offsets[low] * 1000L;
+    }
+}
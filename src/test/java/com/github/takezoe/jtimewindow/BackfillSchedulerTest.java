@@ -0,0 +1,111 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BackfillSchedulerTest {
+
+    private final TimeWindowBuilder t = TimeWindow.withTimeZone("PDT").withOffset("2016-06-26 01:23:45-0700");
+
+    @Test
+    public void order() throws InterruptedException {
+        TimeWindow window = t.parse("-7d/now");
+        List<String> expected = window.splitIntoDays().stream().map(TimeWindow::toString).collect(Collectors.toList());
+
+        List<String> oldest = new ArrayList<>();
+        BackfillScheduler.Result result = new BackfillScheduler(TimeWindowUnit.Day).withConcurrency(1)
+                .run(window, w -> oldest.add(w.toString()));
+        assertEquals(expected, oldest);
+        assertEquals(8, result.getTotal());
+        assertEquals(8, result.getSucceeded());
+        assertTrue(result.isSuccess());
+
+        List<String> newest = new ArrayList<>();
+        new BackfillScheduler(TimeWindowUnit.Day).withConcurrency(1).withOrder(BackfillScheduler.Order.NEWEST_FIRST)
+                .run(window, w -> newest.add(w.toString()));
+        Collections.reverse(newest);
+        assertEquals(expected, newest);
+
+        List<String> steps = new ArrayList<>();
+        new BackfillScheduler(TimeWindowUnit.Hour).withStep(6).withConcurrency(1).withOrder(BackfillScheduler.Order.NEWEST_FIRST)
+                .run("-1d/now", t, w -> steps.add(w.toString()));
+        assertEquals(Collections.singletonList("[2016-06-26 00:00:00-0700,2016-06-26 01:23:45-0700)"), steps.subList(0, 1));
+        assertEquals("[2016-06-25 00:00:00-0700,2016-06-25 06:00:00-0700)", steps.get(steps.size() - 1));
+    }
+
+    @Test
+    public void concurrencyAndRetries() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ConcurrentHashMap<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        List<Long> progress = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger retries = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            BackfillScheduler scheduler = new BackfillScheduler(TimeWindowUnit.Hour)
+                    .withConcurrency(3)
+                    .withMaxRetries(2)
+                    .withExecutor(executor)
+                    .withListener(new BackfillScheduler.ProgressListener() {
+                        @Override
+                        public void onSuccess(TimeWindow window, long completed, long total) {
+                            progress.add(completed * 100 + total);
+                        }
+
+                        @Override
+                        public void onRetry(TimeWindow window, int attempt, Exception error) {
+                            retries.incrementAndGet();
+                        }
+
+                        @Override
+                        public void onFailure(TimeWindow window, Exception error) {
+                            failures.incrementAndGet();
+                        }
+                    });
+            BackfillScheduler.Result result = scheduler.run(t.parse("-2d"), w -> {
+                int n = running.incrementAndGet();
+                maxRunning.accumulateAndGet(n, Math::max);
+                try {
+                    Thread.sleep(1);
+                    int attempt = attempts.computeIfAbsent(w.toString(), k -> new AtomicInteger()).incrementAndGet();
+                    int hour = w.getStart().getHour();
+                    // 03:00 always fails and 05:00 succeeds at the second attempt
+                    if (hour == 3 || (hour == 5 && attempt == 1)) {
+                        throw new IllegalStateException("Failed " + w);
+                    }
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+            assertFalse(executor.isShutdown());
+
+            assertEquals(48, result.getTotal());
+            assertEquals(46, result.getSucceeded());
+            assertEquals(2, result.getFailed().size());
+            assertEquals("[2016-06-24 03:00:00-0700,2016-06-24 04:00:00-0700)", result.getFailed().get(0).toString());
+            assertEquals("[2016-06-25 03:00:00-0700,2016-06-25 04:00:00-0700)", result.getFailed().get(1).toString());
+            assertEquals(2 * 2 + 2, retries.get());
+            assertEquals(2, failures.get());
+            assertEquals(46, progress.size());
+            assertTrue(progress.contains(46 * 100 + 48L));
+            assertTrue(maxRunning.get() <= 3);
+            assertEquals(0, running.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
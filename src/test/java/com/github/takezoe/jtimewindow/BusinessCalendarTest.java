@@ -0,0 +1,149 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BusinessCalendarTest {
+
+    private final TimeWindowBuilder t = TimeWindow.withTimeZone("PDT").withOffset("2016-06-26 01:23:45-0700");
+
+    @Test
+    public void businessDays() {
+        Random random = new Random(0);
+        Set<LocalDate> holidays = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            holidays.add(LocalDate.of(1995, 1, 1).plusDays(random.nextInt(40 * 365)));
+        }
+        BusinessCalendar calendar = BusinessCalendar.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.THURSDAY,
+                DayOfWeek.FRIDAY, DayOfWeek.SUNDAY).withHolidays(holidays);
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDate date = LocalDate.of(2000, 1, 1).plusDays(random.nextInt(30 * 365));
+            int n = random.nextInt(1001) - 500;
+            LocalDate expected = date;
+            for (int k = 0; k < Math.abs(n); ) {
+                expected = expected.plusDays(Integer.signum(n));
+                if (expected.getDayOfWeek() != DayOfWeek.WEDNESDAY && expected.getDayOfWeek() != DayOfWeek.SATURDAY
+                        && !holidays.contains(expected)) {
+                    k++;
+                }
+            }
+            assertEquals(date + " " + n, expected, calendar.plusBusinessDays(date, n));
+            if (n != 0) {
+                assertTrue(calendar.isBusinessDay(expected));
+            }
+
+            long count = 0;
+            LocalDate from = (n < 0) ? expected : date;
+            LocalDate to = (n < 0) ? date : expected;
+            for (LocalDate d = from; d.isBefore(to); d = d.plusDays(1)) {
+                if (calendar.isBusinessDay(d)) {
+                    count++;
+                }
+            }
+            assertEquals(count, calendar.businessDaysBetween(from, to));
+        }
+
+        assertTrue(BusinessCalendar.WEEKDAYS.isBusinessDay(LocalDate.of(2016, 6, 24)));
+        assertFalse(BusinessCalendar.WEEKDAYS.isBusinessDay(LocalDate.of(2016, 6, 25)));
+        assertEquals(LocalDate.of(2016, 6, 27), BusinessCalendar.WEEKDAYS.plusBusinessDays(LocalDate.of(2016, 6, 25), 1));
+        assertEquals(LocalDate.of(2016, 6, 24), BusinessCalendar.WEEKDAYS.plusBusinessDays(LocalDate.of(2016, 6, 25), -1));
+    }
+
+    @Test
+    public void businessDayUnit() {
+        // 2016-06-26 is Sunday, which belongs to the business day of Friday
+        assertEquals("[2016-06-17 00:00:00-0700,2016-06-24 00:00:00-0700)", t.parse("-5b").toString());
+        assertEquals("[2016-06-17 00:00:00-0700,2016-06-26 01:23:45-0700)", t.parse("-5b/now").toString());
+        assertEquals("[2016-06-24 00:00:00-0700,2016-06-27 00:00:00-0700)", t.parse("1b").toString());
+
+        TimeWindowBuilder wednesday = t.withOffset("2016-06-22 10:00:00-0700");
+        assertEquals("[2016-06-15 00:00:00-0700,2016-06-22 00:00:00-0700)", wednesday.parse("-5b").toString());
+
+        BusinessCalendar calendar = BusinessCalendar.WEEKDAYS.withHolidays(LocalDate.of(2016, 6, 20));
+        assertEquals("[2016-06-16 00:00:00-0700,2016-06-24 00:00:00-0700)", t.withCalendar(calendar).parse("-5b").toString());
+        assertEquals("[2016-06-16 00:00:00-0700,2016-06-24 00:00:00-0700)",
+                t.withCalendar(calendar).parseAll(Collections.singletonList("-5b")).get(0).getWindow().toString());
+        assertEquals(10, t.parse("-2w").splitInto(TimeWindowUnit.BusinessDay, 1).size());
+    }
+
+    @Test
+    public void calendarOutsideExpressions() {
+        // 2016-06-13 is Monday
+        BusinessCalendar calendar = BusinessCalendar.WEEKDAYS.withHolidays(LocalDate.of(2016, 6, 13));
+        TimeWindow twoWeeks = t.parse("-2w");
+        assertEquals(9, twoWeeks.splitInto(TimeWindowUnit.BusinessDay, 1, calendar).size());
+        assertEquals(9, twoWeeks.stream(TimeWindowUnit.BusinessDay, 1, calendar).count());
+        assertEquals("[2016-06-10 00:00:00-0700,2016-06-14 00:00:00-0700)",
+                twoWeeks.splitInto(TimeWindowUnit.BusinessDay, 1, calendar).get(4).toString());
+        assertEquals(9, new TimeWindowBucketer(twoWeeks, TimeWindowUnit.BusinessDay, 1, calendar).size());
+
+        long friday = ZonedDateTime.parse("2016-06-10T12:00:00-07:00").toInstant().toEpochMilli();
+        long tuesday = ZonedDateTime.parse("2016-06-14T12:00:00-07:00").toInstant().toEpochMilli();
+        long fridayStart = TimeWindowUnit.BusinessDay.truncateMillis(friday, t.getZoneId(), calendar);
+        assertEquals(TimeWindowUnit.BusinessDay.truncateMillis(tuesday, t.getZoneId(), calendar),
+                TimeWindowUnit.BusinessDay.incrementMillis(fridayStart, 1, t.getZoneId(), calendar));
+
+        // Consecutive business days across the holiday take consecutive slots
+        TimeWindowAggregator aggregator = new TimeWindowAggregator(t.withCalendar(calendar), TimeWindowUnit.BusinessDay, 2);
+        assertTrue(aggregator.record(friday, 1));
+        assertTrue(aggregator.record(tuesday, 2));
+        assertEquals(3, aggregator.sum(twoWeeks));
+
+        RecurringWindow workingHours = RecurringWindow.every(TimeWindowUnit.BusinessDay, Duration.ofHours(9), Duration.ofHours(8), t.getZoneId());
+        assertEquals("[2016-06-13 09:00:00-0700,2016-06-13 17:00:00-0700)", workingHours.nextAfter(friday).toString());
+        assertEquals("[2016-06-14 09:00:00-0700,2016-06-14 17:00:00-0700)", workingHours.withCalendar(calendar).nextAfter(friday).toString());
+    }
+
+    @Test
+    public void workingTime() {
+        BusinessCalendar calendar = BusinessCalendar.WEEKDAYS.withWorkingHours(LocalTime.of(9, 0), LocalTime.of(17, 0));
+        TimeWindow lastWeek = t.parse("-1w");
+        TimeWindowSet working = calendar.workingTime(lastWeek);
+        assertEquals(5, working.size());
+        assertEquals(40 * 60 * 60 * 1000L, working.totalMillis());
+        assertEquals("[2016-06-13 09:00:00-0700,2016-06-13 17:00:00-0700)", working.get(0).toString());
+
+        TimeWindow maintenance = new TimeWindow(ZonedDateTime.parse("2016-06-14T16:00:00-07:00"), ZonedDateTime.parse("2016-06-15T10:00:00-07:00"));
+        TimeWindowSet excluded = calendar.withExclusions(maintenance).workingTime(lastWeek);
+        assertEquals(38 * 60 * 60 * 1000L, excluded.totalMillis());
+        assertEquals("[2016-06-15 10:00:00-0700,2016-06-15 17:00:00-0700)", excluded.get(2).toString());
+
+        // Clipped by the window, and consecutive days are merged without working hours
+        assertEquals(11 * 60 * 60 * 1000L, calendar.workingTime(t.withOffset("2016-06-24 12:00:00-0700").parse("-1d/now")).totalMillis());
+        TimeWindowSet allDay = BusinessCalendar.WEEKDAYS.workingTime(t.parse("-1M"));
+        assertEquals(5, allDay.size());
+        assertEquals(22 * 24 * 60 * 60 * 1000L, allDay.totalMillis());
+    }
+
+    @Test
+    public void workingTimeInOverlap() {
+        // 02:00-03:00 happens twice on 2016-10-30 in Berlin, and 01:00-02:00 on 2016-11-06 in Los Angeles.
+        // Working hours start at the earlier offset in both zones as ZonedDateTime.of does.
+        BusinessCalendar everyDay = BusinessCalendar.of(DayOfWeek.values());
+        String[][] cases = {{"Europe/Berlin", "2016-10-30", "02:30"}, {"America/Los_Angeles", "2016-11-06", "01:30"}};
+        for (String[] c : cases) {
+            ZoneId zone = ZoneId.of(c[0]);
+            LocalDate date = LocalDate.parse(c[1]);
+            LocalTime start = LocalTime.parse(c[2]);
+            TimeWindow day = new TimeWindow(date.atStartOfDay(zone), date.plusDays(1).atStartOfDay(zone));
+            TimeWindowSet working = everyDay.withWorkingHours(start, start.plusHours(2)).workingTime(day);
+            assertEquals(ZonedDateTime.of(date, start, zone).toInstant().toEpochMilli(), working.startEpochMillis(0));
+            assertEquals(ZonedDateTime.of(date, start.plusHours(2), zone).toInstant().toEpochMilli(), working.endEpochMillis(0));
+        }
+    }
+}
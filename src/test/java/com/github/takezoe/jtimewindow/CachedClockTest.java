@@ -0,0 +1,38 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.ZoneId;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CachedClockTest {
+
+    @Test
+    public void tick() throws InterruptedException {
+        try (CachedClock clock = CachedClock.start(1)) {
+            long before = System.currentTimeMillis();
+            Thread.sleep(50);
+            long cached = clock.millis();
+            assertTrue(cached > before);
+            assertTrue(cached <= System.currentTimeMillis());
+            assertEquals(cached, clock.instant().toEpochMilli(), 50);
+
+            Clock tokyo = clock.withZone(ZoneId.of("Asia/Tokyo"));
+            assertEquals(ZoneId.of("Asia/Tokyo"), tokyo.getZone());
+            assertEquals(clock.millis(), tokyo.millis(), 50);
+        }
+    }
+
+    @Test
+    public void close() throws InterruptedException {
+        CachedClock clock = CachedClock.start(1);
+        clock.close();
+        Thread.sleep(10);
+        long frozen = clock.millis();
+        Thread.sleep(20);
+        assertEquals(frozen, clock.millis());
+    }
+}
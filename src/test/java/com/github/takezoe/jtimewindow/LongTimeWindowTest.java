@@ -0,0 +1,89 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LongTimeWindowTest {
+
+    TimeWindowBuilder t = TimeWindow.withTimeZone("PDT").withOffset("2016-06-26 01:23:45-0700");
+
+    private List<LongTimeWindow> toLong(List<TimeWindow> windows) {
+        List<LongTimeWindow> list = new ArrayList<>();
+        for (TimeWindow w : windows) {
+            list.add(w.toLongTimeWindow());
+        }
+        return list;
+    }
+
+    @Test
+    public void convert() {
+        TimeWindow w = t.parse("-7d/now");
+        LongTimeWindow l = w.toLongTimeWindow();
+        assertEquals(w.startEpochMillis(), l.getStartEpochMillis());
+        assertEquals(w.endEpochMillis(), l.getEndEpochMillis());
+        assertEquals(w.toString(), l.toString());
+        assertEquals(w.toString(), l.toTimeWindow().toString());
+    }
+
+    @Test
+    public void split() {
+        for (String s : new String[]{"-7d/now", "thisYear/thisMonth", "-5w/2017-06-01", "-1y/now", "+12h/now"}) {
+            TimeWindow w = t.parse(s);
+            LongTimeWindow l = w.toLongTimeWindow();
+            assertEquals(toLong(w.splitIntoHours()), l.splitIntoHours());
+            assertEquals(toLong(w.splitIntoDays()), l.splitIntoDays());
+            assertEquals(toLong(w.splitIntoWeeks()), l.splitIntoWeeks());
+            assertEquals(toLong(w.splitIntoMonths()), l.splitIntoMonths());
+        }
+    }
+
+    @Test
+    public void arithmetic() {
+        TimeWindow w = t.parse("-1M/now");
+        LongTimeWindow l = w.toLongTimeWindow();
+        for (ChronoUnit unit : new ChronoUnit[]{ChronoUnit.HOURS, ChronoUnit.DAYS, ChronoUnit.WEEKS, ChronoUnit.MONTHS, ChronoUnit.YEARS}) {
+            assertEquals(w.plus(3, unit).toLongTimeWindow(), l.plus(3, unit));
+            assertEquals(w.minus(3, unit).toLongTimeWindow(), l.minus(3, unit));
+        }
+
+        LongTimeWindow today = t.parse("today").toLongTimeWindow();
+        assertTrue(l.intersectsWith(today));
+        assertFalse(today.intersectsWith(t.parse("tomorrow").toLongTimeWindow()));
+
+        long noon = t.parse("0d/2016-06-26 12:00:00)").getEnd().toInstant().toEpochMilli();
+        List<LongTimeWindow> halves = today.splitAt(noon);
+        assertEquals(2, halves.size());
+        assertEquals("[2016-06-26 00:00:00-0700,2016-06-26 12:00:00-0700)", halves.get(0).toString());
+        assertEquals(1, today.splitAt(today.getStartEpochMillis()).size());
+    }
+
+    @Test
+    public void acrossTransition() {
+        TimeWindowBuilder la = TimeWindow.withTimeZone("America/Los_Angeles").withOffset("2016-11-08 01:23:45-0800");
+        TimeWindow w = la.parse("-4d");
+        LongTimeWindow l = w.toLongTimeWindow();
+        assertEquals(4, l.splitIntoDays().size());
+
+        for (String s : new String[]{"-4d", "-2w/now", "-1y/now", "-1d/2016-03-14", "0M/2016-03-13 12:00:00"}) {
+            w = la.parse(s);
+            l = w.toLongTimeWindow();
+            assertEquals(w.toString(), l.toString());
+            assertEquals(toLong(w.splitIntoHours()), l.splitIntoHours());
+            assertEquals(toLong(w.splitIntoDays()), l.splitIntoDays());
+            assertEquals(toLong(w.splitIntoWeeks()), l.splitIntoWeeks());
+            assertEquals(toLong(w.splitIntoMonths()), l.splitIntoMonths());
+            for (ChronoUnit unit : new ChronoUnit[]{ChronoUnit.HOURS, ChronoUnit.DAYS, ChronoUnit.WEEKS, ChronoUnit.MONTHS, ChronoUnit.YEARS}) {
+                assertEquals(w.plus(3, unit).toLongTimeWindow(), l.plus(3, unit));
+                assertEquals(w.minus(3, unit).toLongTimeWindow(), l.minus(3, unit));
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PartitionPlannerTest {
+
+    private final TimeWindowBuilder t = TimeWindow.withTimeZone("PDT").withOffset("2016-06-26 01:23:45-0700");
+
+    private List<String> plan(PartitionPlanner planner, String expression) {
+        return planner.plan(expression, t).collect(Collectors.toList());
+    }
+
+    @Test
+    public void dailyHourly() {
+        PartitionPlanner planner = PartitionPlanner.dailyHourly(ZoneOffset.ofHours(-7));
+        assertEquals(Arrays.asList("dt=2016-06-25"), plan(planner, "-1d"));
+        assertEquals(Arrays.asList("dt=2016-06-24", "dt=2016-06-25", "dt=2016-06-26/hr=00", "dt=2016-06-26/hr=01"),
+                plan(planner, "-2d/now"));
+        assertEquals(Arrays.asList("dt=2016-06-25/hr=22", "dt=2016-06-25/hr=23", "dt=2016-06-26/hr=00"),
+                plan(planner, "-3h"));
+
+        // Partitions in UTC
+        PartitionPlanner utc = PartitionPlanner.dailyHourly(ZoneOffset.UTC);
+        List<String> keys = plan(utc, "-2d");
+        assertEquals(25, keys.size());
+        assertEquals("dt=2016-06-24/hr=07", keys.get(0));
+        assertEquals("dt=2016-06-24/hr=23", keys.get(16));
+        assertEquals("dt=2016-06-25", keys.get(17));
+        assertEquals("dt=2016-06-26/hr=00", keys.get(18));
+        assertEquals("dt=2016-06-26/hr=06", keys.get(24));
+    }
+
+    @Test
+    public void customLayout() {
+        PartitionPlanner planner = PartitionPlanner.of(ZoneId.of("America/Los_Angeles"))
+                .withLevel(TimeWindowUnit.Month, "yyyy/MM")
+                .withLevel(TimeWindowUnit.Day, "dd")
+                .withLevel(TimeWindowUnit.Hour, "HH");
+        List<String> keys = plan(planner, "-2M/now");
+        assertEquals("2016/04", keys.get(0));
+        assertEquals("2016/05", keys.get(1));
+        assertEquals("2016/06/01", keys.get(2));
+        assertEquals("2016/06/25", keys.get(26));
+        assertEquals(Arrays.asList("2016/06/26/00", "2016/06/26/01"), keys.subList(27, keys.size()));
+        // Lazily generated
+        assertEquals(3, planner.plan("-100y/now", t).limit(3).count());
+
+        try {
+            PartitionPlanner.of(ZoneOffset.UTC).withLevel(TimeWindowUnit.BusinessDay, "yyyy-MM-dd");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void nestedLevels() {
+        PartitionPlanner weekly = PartitionPlanner.of(ZoneOffset.ofHours(-7))
+                .withLevel(TimeWindowUnit.Week, "'w='yyyy-MM-dd").withLevel(TimeWindowUnit.Day, "dd");
+        assertEquals(Arrays.asList("w=2016-06-13", "w=2016-06-20/20"), plan(weekly, "-8d/2016-06-21"));
+        PartitionPlanner.of(ZoneOffset.UTC).withLevel(TimeWindowUnit.Year, "yyyy").withLevel(TimeWindowUnit.Quarter, "'q'Q")
+                .withLevel(TimeWindowUnit.Month, "MM").withLevel(TimeWindowUnit.Day, "dd").withLevel(TimeWindowUnit.Hour, "HH");
+
+        // A week which spans two months would be planned under both of them
+        TimeWindowUnit[][] invalid = {
+                {TimeWindowUnit.Month, TimeWindowUnit.Week}, {TimeWindowUnit.Year, TimeWindowUnit.Week},
+                {TimeWindowUnit.Day, TimeWindowUnit.Day}, {TimeWindowUnit.Hour, TimeWindowUnit.Day}
+        };
+        for (TimeWindowUnit[] levels : invalid) {
+            try {
+                PartitionPlanner.of(ZoneOffset.UTC).withLevel(levels[0], "yyyy").withLevel(levels[1], "MM");
+                fail(Arrays.toString(levels));
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RecurringWindowTest {
+
+    private static final ZoneId LA = ZoneId.of("America/Los_Angeles");
+
+    // Occurrence on the given date computed with ZonedDateTime
+    private static TimeWindow naive(LocalDate date, DayOfWeek day, LocalTime start, LocalTime end, ZoneId zone) {
+        if (day != null && date.getDayOfWeek() != day) {
+            return null;
+        }
+        ZonedDateTime s = ZonedDateTime.of(date, start, zone);
+        LocalDate endDate = end.isAfter(start) ? date : date.plusDays(1);
+        return new TimeWindow(s, ZonedDateTime.of(endDate, end, zone));
+    }
+
+    private static void assertSameWindow(TimeWindow expected, TimeWindow actual) {
+        assertEquals(expected.startEpochMillis(), actual.startEpochMillis());
+        assertEquals(expected.endEpochMillis(), actual.endEpochMillis());
+    }
+
+    @Test
+    public void compareWithZonedDateTime() {
+        Object[][] specs = {
+            {null, LocalTime.of(2, 0), LocalTime.of(4, 0), LA},
+            {null, LocalTime.of(22, 0), LocalTime.of(1, 0), LA},
+            {DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(10, 0), LA},
+            {DayOfWeek.SUNDAY, LocalTime.of(23, 30), LocalTime.of(0, 30), ZoneOffset.ofHoursMinutes(5, 45)},
+        };
+        Random random = new Random(0);
+        long from = ZonedDateTime.parse("2015-01-01T00:00:00Z").toInstant().toEpochMilli();
+        long to = ZonedDateTime.parse("2020-01-01T00:00:00Z").toInstant().toEpochMilli();
+
+        for (Object[] spec : specs) {
+            DayOfWeek day = (DayOfWeek) spec[0];
+            LocalTime start = (LocalTime) spec[1];
+            LocalTime end = (LocalTime) spec[2];
+            ZoneId zone = (ZoneId) spec[3];
+            RecurringWindow r = (day == null) ? RecurringWindow.daily(start, end, zone) : RecurringWindow.weekly(day, start, end, zone);
+
+            for (int i = 0; i < 3000; i++) {
+                long t = from + (long) (random.nextDouble() * (to - from));
+                if (i % 3 == 0) {
+                    // On the boundaries of an occurrence
+                    TimeWindow w = r.nextAfter(t);
+                    t = (i % 2 == 0) ? w.startEpochMillis() : w.endEpochMillis();
+                }
+                LocalDate date = Instant.ofEpochMilli(t).atZone(zone).toLocalDate();
+
+                TimeWindow containing = null;
+                TimeWindow next = null;
+                TimeWindow previous = null;
+                for (LocalDate d = date.minusDays(16); d.isBefore(date.plusDays(16)); d = d.plusDays(1)) {
+                    TimeWindow w = naive(d, day, start, end, zone);
+                    if (w == null) {
+                        continue;
+                    }
+                    if (w.startEpochMillis() <= t && t < w.endEpochMillis()) {
+                        containing = w;
+                    }
+                    if (next == null && w.startEpochMillis() > t) {
+                        next = w;
+                    }
+                    if (w.endEpochMillis() <= t) {
+                        previous = w;
+                    }
+                }
+                String message = r + " " + Instant.ofEpochMilli(t);
+                assertEquals(message, containing != null, r.contains(t));
+                if (containing == null) {
+                    assertNull(message, r.containing(t));
+                } else {
+                    assertSameWindow(containing, r.containing(t));
+                }
+                assertSameWindow(next, r.nextAfter(t));
+                assertEquals(message, next.startEpochMillis(), r.nextStartAfter(t));
+                assertSameWindow(previous, r.previousBefore(t));
+            }
+        }
+    }
+
+    @Test
+    public void occurrencesIn() {
+        TimeWindowBuilder t = TimeWindow.withZoneId(LA).withOffset("2016-03-20 01:23:45-0700");
+        RecurringWindow r = RecurringWindow.daily(LocalTime.of(2, 0), LocalTime.of(4, 0), LA);
+        List<String> occurrences = r.occurrencesIn(t.parse("-14d")).map(TimeWindow::toString).collect(Collectors.toList());
+        assertEquals(14, occurrences.size());
+        assertEquals("[2016-03-06 02:00:00-0800,2016-03-06 04:00:00-0800)", occurrences.get(0));
+        // 02:00 doesn't exist on the day of the transition
+        assertEquals("[2016-03-13 03:00:00-0700,2016-03-13 04:00:00-0700)", occurrences.get(7));
+        assertEquals("[2016-03-19 02:00:00-0700,2016-03-19 04:00:00-0700)", occurrences.get(13));
+
+        // Occurrences intersecting with the window are not clipped
+        List<TimeWindow> partial = r.occurrencesIn(t.parse("-1d/now").minus(90, ChronoUnit.MINUTES)).collect(Collectors.toList());
+        assertEquals(1, partial.size());
+        assertEquals("[2016-03-19 02:00:00-0700,2016-03-19 04:00:00-0700)", partial.get(0).toString());
+
+        // Lazily generated
+        assertEquals(3, r.occurrencesIn(t.parse("-100y/now")).limit(3).count());
+
+        RecurringWindow monthly = RecurringWindow.every(TimeWindowUnit.Month, Duration.ofDays(1), Duration.ofHours(6), ZoneOffset.UTC);
+        assertEquals(12, monthly.occurrencesIn(TimeWindow.withUTC().withOffset("2016-06-26 00:00:00Z").parse("-1y")).count());
+        assertEquals("[2016-07-02 00:00:00Z,2016-07-02 06:00:00Z)", monthly.nextAfter(ZonedDateTime.parse("2016-06-26T00:00:00Z")).toString());
+        assertFalse(monthly.contains(ZonedDateTime.parse("2016-06-02T06:00:00Z").toInstant().toEpochMilli()));
+        assertTrue(monthly.contains(ZonedDateTime.parse("2016-06-02T05:59:59Z").toInstant().toEpochMilli()));
+
+        try {
+            RecurringWindow.every(TimeWindowUnit.Hour, Duration.ofMinutes(30), Duration.ofHours(2), ZoneOffset.UTC);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.github.takezoe.jtimewindow;
 
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class TimeParserTest {
@@ -45,6 +53,70 @@ public class TimeParserTest {
         parse("2016-12-01 08:00:01", "2016-12-01T08:00:01Z");
     }
 
+    private void fastParse(String str, ZoneOffset zone){
+        ZonedDateTime expected = TimeParser.parse(str, zone);
+        assertEquals(str, expected, FastTimeParser.parse(str, zone));
 
+        long millis = (expected == null) ? FastTimeParser.INVALID : TimeWindow.toEpochMillis(expected);
+        assertEquals(str, millis, FastTimeParser.parseEpochMillis(str, zone));
+        String padded = "[" + str + "]";
+        assertEquals(str, millis, FastTimeParser.parseEpochMillis(padded, 1, padded.length() - 1, zone));
+        byte[] bytes = padded.getBytes(StandardCharsets.UTF_8);
+        assertEquals(str, millis, FastTimeParser.parseEpochMillis(bytes, 1, bytes.length - 1, zone));
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        assertEquals(str, millis, FastTimeParser.parseEpochMillis(direct, 1, bytes.length - 1, zone));
+        assertEquals(str, expected, FastTimeParser.parse(ByteBuffer.wrap(bytes), 1, bytes.length - 1, zone));
+    }
+
+    @Test
+    public void fastParseDateTime(){
+        ZoneOffset zone = ZoneOffset.ofHours(-7);
+        assertEquals(1483336883000L, FastTimeParser.parseEpochMillis("2017-01-01 23:01:23-0700", zone));
+        assertEquals(1483336883456L, FastTimeParser.parseEpochMillis("2017-01-01 23:01:23.456", zone));
+        assertEquals(FastTimeParser.INVALID, FastTimeParser.parseEpochMillis("2017-13-01 23:01:23", zone));
+        assertNull(FastTimeParser.parse("2017-01-01T23:01:23", zone));
+
+        String[] dates = {"2017-01-01", "2016-02-29", "2017-02-30", "2017-04-31", "2017-02-32", "2017-00-10", "0000-01-01", "20x7-01-01"};
+        String[] times = {"", " 23:01:23", "T00:00:00", " 24:00:00", " 12:60:00", " 1:2:3", "T12:34:56", "/12:34:56"};
+        String[] fractions = {"", ".123", ".1", ".12x"};
+        String[] zones = {"", "Z", "-0700", "-07:00", "+0545", "+18:00", "+19:00", "+07:60", " UTC", " PST",
+                " America/Los_Angeles", "[Asia/Tokyo]", "z", "+07", "-07:00:00", "x"};
+        Random random = new Random(1);
+        for (int i = 0; i < 5000; i++) {
+            String str = dates[random.nextInt(dates.length)] + times[random.nextInt(times.length)]
+                    + fractions[random.nextInt(fractions.length)] + zones[random.nextInt(zones.length)];
+            fastParse(str, zone);
+        }
+        fastParse("", zone);
+        fastParse("2017-01", zone);
+    }
 
+
+    @Test
+    public void fastParseBytesWithoutAllocation(){
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+        long threadId = Thread.currentThread().getId();
+
+        ZoneOffset zone = ZoneOffset.ofHours(-7);
+        byte[] bytes = "x2017-01-01 23:01:23.456-0700x".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        long sum = 0;
+        for (int i = 0; i < 2; i++) {
+            long before = bean.getThreadAllocatedBytes(threadId);
+            for (int j = 0; j < 1000; j++) {
+                sum += FastTimeParser.parseEpochMillis(bytes, 1, bytes.length - 1, zone);
+                sum += FastTimeParser.parseEpochMillis(direct, 1, bytes.length - 1, zone);
+            }
+            long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+            // The first round warms up the thread local
+            if (i == 1) {
+                assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+            }
+        }
+        assertEquals(4000 * 1483336883456L, sum);
+    }
 }
@@ -0,0 +1,127 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimeStampFormatterTest {
+
+    private static final ZoneOffset[] zones = {
+            ZoneOffset.UTC, ZoneOffset.ofHours(-7), ZoneOffset.ofHoursMinutes(5, 45),
+            ZoneOffset.ofHoursMinutes(-3, -30), ZoneOffset.ofHours(14), ZoneOffset.ofTotalSeconds(30)
+    };
+
+    private void check(long millis, ZoneOffset zone) {
+        ZonedDateTime t = ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+        String human = TimeStampFormatter.humanReadableTimestampFormatter.format(t);
+        String noSpace = TimeStampFormatter.noSpaceTimestampFormat.format(t);
+
+        assertEquals(human, TimeStampFormatter.formatTimestamp(millis, zone));
+        assertEquals(human, TimeStampFormatter.formatTimestamp(t));
+        assertEquals(noSpace, TimeStampFormatter.formatTimestampWithNoSpace(millis, zone));
+
+        StringBuilder sb = new StringBuilder();
+        TimeStampFormatter.formatTimestamp(millis, zone, true, sb);
+        assertEquals(noSpace.replace('T', ' '), sb.toString());
+
+        char[] chars = new char[40];
+        int n = TimeStampFormatter.formatTimestamp(millis, zone, chars, 3);
+        assertEquals(human, new String(chars, 3, n));
+        n = TimeStampFormatter.formatTimestampWithNoSpace(millis, zone, chars, 1);
+        assertEquals(noSpace, new String(chars, 1, n));
+
+        ByteBuffer buffer = ByteBuffer.allocate(40);
+        n = TimeStampFormatter.formatTimestamp(millis, zone, buffer);
+        assertEquals(human, new String(buffer.array(), 0, n, StandardCharsets.US_ASCII));
+        buffer.clear();
+        n = TimeStampFormatter.formatTimestampWithNoSpace(millis, zone, buffer);
+        assertEquals(noSpace, new String(buffer.array(), 0, n, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void formatIntoBuffers() {
+        StringBuilder sb = new StringBuilder("x");
+        TimeStampFormatter.formatTimestamp(1466929425123L, ZoneOffset.ofHours(-7), sb);
+        TimeStampFormatter.formatTimestampWithNoSpace(1466929425123L, ZoneOffset.UTC, sb.append(' '));
+        assertEquals("x2016-06-26 01:23:45-0700 2016-06-26T08:23:45.123Z", sb.toString());
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            long millis = random.nextLong() % 253402300800000L;
+            check(millis, zones[random.nextInt(zones.length)]);
+            // Consecutive timestamps in the same second hit the cache
+            check(millis + random.nextInt(1000), zones[random.nextInt(zones.length)]);
+        }
+        // Years which don't fit in 4 digits
+        check(-62198755200000L, ZoneOffset.UTC);
+        check(253402300800000L, ZoneOffset.UTC);
+    }
+
+    @Test
+    public void formatLocalMeanTimeOffsets() {
+        // Before 1900 region zones have local mean time offsets with seconds, some of them under a minute
+        String[] regions = {"Africa/Accra", "Europe/London", "Europe/Amsterdam", "Africa/Monrovia", "America/New_York"};
+        for (String region : regions) {
+            ZonedDateTime t = ZonedDateTime.of(1850, 3, 4, 5, 6, 7, 890000000, ZoneId.of(region));
+            long millis = t.toInstant().toEpochMilli();
+            assertEquals(TimeStampFormatter.humanReadableTimestampFormatter.format(t), TimeStampFormatter.formatTimestamp(t));
+            check(millis, t.getOffset());
+        }
+        check(0, ZoneOffset.ofTotalSeconds(-30));
+        check(0, ZoneOffset.ofTotalSeconds(59));
+        check(0, ZoneOffset.ofTotalSeconds(-61));
+    }
+
+    private long formatAlternately(long[] times, ZoneOffset zone, StringBuilder sb, char[] chars, ByteBuffer buffer) {
+        long length = 0;
+        for (int i = 0; i < 1000; i++) {
+            long millis = times[i % times.length];
+            sb.setLength(0);
+            TimeStampFormatter.formatTimestamp(millis, zone, sb);
+            TimeStampFormatter.formatTimestampWithNoSpace(millis, zone, sb);
+            TimeStampFormatter.formatTimestamp(millis, zone, true, sb);
+            length += sb.length();
+            length += TimeStampFormatter.formatTimestamp(millis, zone, chars, 0);
+            length += TimeStampFormatter.formatTimestampWithNoSpace(millis, zone, chars, 0);
+            buffer.clear();
+            length += TimeStampFormatter.formatTimestamp(millis, zone, buffer);
+            length += TimeStampFormatter.formatTimestampWithNoSpace(millis, zone, buffer);
+        }
+        return length;
+    }
+
+    @Test
+    public void formatWithoutAllocation() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+        long threadId = Thread.currentThread().getId();
+
+        // Start and end of a window, which are in different seconds and miss the cache every time
+        long[] times = {1466929425123L, 1467015825456L, 1467015826789L};
+        ZoneOffset zone = ZoneOffset.ofHours(-7);
+        StringBuilder sb = new StringBuilder(64);
+        char[] chars = new char[64];
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        formatAlternately(times, zone, sb, chars, buffer);
+
+        long before = bean.getThreadAllocatedBytes(threadId);
+        long length = formatAlternately(times, zone, sb, chars, buffer);
+        long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+        // 24 characters without millis and 28 with millis
+        assertEquals(1000 * (24 + 28 + 28 + (24 + 28) * 2), length);
+        // Allow a few bytes allocated by the measurement itself
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimeWindowAggregatorTest {
+
+    private static final long NOW = ZonedDateTime.parse("2016-06-26T01:23:45-07:00").toInstant().toEpochMilli();
+
+    @Test
+    public void aggregate() {
+        TimeWindowBuilder builder = TimeWindow.withTimeZone("PDT").withClock(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+        TimeWindowAggregator aggregator = new TimeWindowAggregator(builder, TimeWindowUnit.Minute, 60);
+
+        // A value per minute for the last 2 hours
+        for (int i = 119; i >= 0; i--) {
+            assertTrue(aggregator.record(NOW - i * 60 * 1000L, i));
+        }
+        // Older than the ring
+        assertFalse(aggregator.record(NOW - 120 * 60 * 1000L, 1000));
+
+        // 01:08 - 01:23
+        assertEquals(16, aggregator.count("-15m/now"));
+        assertEquals(120, aggregator.sum("-15m/now"));
+        assertEquals(OptionalLong.of(0), aggregator.min("-15m/now"));
+        assertEquals(OptionalLong.of(15), aggregator.max("-15m/now"));
+        // 00:24 - 01:23 are kept
+        assertEquals(60, aggregator.count("-1d/now"));
+        assertEquals(59 * 60 / 2, aggregator.sum("-1d/now"));
+        assertEquals(OptionalLong.empty(), aggregator.max("-1d"));
+
+        // Rotate to the next minute
+        assertTrue(aggregator.record(NOW + 60 * 1000L, 7));
+        assertEquals(60, aggregator.count("-1d/+1d"));
+        assertEquals(59 * 60 / 2 - 59 + 7, aggregator.sum("-1d/+1d"));
+    }
+
+    @Test
+    public void calendarUnits() {
+        TimeWindowBuilder builder = TimeWindow.withZoneId(ZoneId.of("America/Los_Angeles"));
+        TimeWindowAggregator aggregator = new TimeWindowAggregator(builder, TimeWindowUnit.Month, 12);
+        ZonedDateTime t = ZonedDateTime.parse("2016-01-31T23:00:00-08:00[America/Los_Angeles]");
+        for (int i = 0; i < 24; i++) {
+            aggregator.record(t.plusMonths(i).toInstant().toEpochMilli(), i);
+        }
+        TimeWindow lastYear = new TimeWindow(ZonedDateTime.parse("2017-01-01T00:00:00-08:00"), ZonedDateTime.parse("2018-01-01T00:00:00-08:00"));
+        assertEquals(12, aggregator.count(lastYear));
+        assertEquals(OptionalLong.of(12), aggregator.min(lastYear));
+        assertEquals(OptionalLong.of(23), aggregator.max(lastYear));
+    }
+
+    @Test
+    public void concurrentRecords() throws InterruptedException {
+        TimeWindowAggregator aggregator = new TimeWindowAggregator(TimeWindow.withUTC(), TimeWindowUnit.Second, 10);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    aggregator.record(NOW + i % 10 * 1000L, 1);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        TimeWindow window = new TimeWindow(
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(NOW - 1000), ZoneOffset.UTC),
+                ZonedDateTime.ofInstant(Instant.ofEpochMilli(NOW + 10000), ZoneOffset.UTC));
+        assertEquals(400000, aggregator.count(window));
+        assertEquals(400000, aggregator.sum(window));
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimeWindowBucketerTest {
+
+    @Test
+    public void bucketOf() {
+        TimeWindow window = new TimeWindow(ZonedDateTime.parse("2016-03-12T12:34:56.789-08:00[America/Los_Angeles]"),
+                ZonedDateTime.parse("2016-11-08T01:00:00-08:00[America/Los_Angeles]"));
+        TimeWindow offsetWindow = new TimeWindow(ZonedDateTime.parse("2016-03-12T12:34:56.789+05:45"),
+                ZonedDateTime.parse("2016-11-08T01:00:00+05:45"));
+        Random random = new Random(0);
+
+        for (TimeWindow w : new TimeWindow[]{window, offsetWindow}) {
+            for (TimeWindowUnit unit : TimeWindowUnit.values()) {
+                for (long step : new long[]{1, 3}) {
+                    if (unit == TimeWindowUnit.Second || unit == TimeWindowUnit.Minute) {
+                        continue;
+                    }
+                    List<TimeWindow> windows = w.splitInto(unit, step);
+                    TimeWindowBucketer bucketer = new TimeWindowBucketer(w, unit, step);
+                    assertEquals(windows.size(), bucketer.size());
+
+                    long[] in = new long[1000];
+                    for (int i = 0; i < in.length; i++) {
+                        TimeWindow sub = windows.get(random.nextInt(windows.size()));
+                        // Start, end or a random time around the sub-window
+                        switch (i % 3) {
+                            case 0: in[i] = sub.startEpochMillis(); break;
+                            case 1: in[i] = sub.endEpochMillis(); break;
+                            default: in[i] = sub.startEpochMillis() + random.nextInt(3 * 60 * 60 * 1000) - 60 * 60 * 1000;
+                        }
+                    }
+                    int[] out = new int[in.length];
+                    bucketer.bucketAll(in, out);
+
+                    for (int i = 0; i < in.length; i++) {
+                        int expected = -1;
+                        for (int k = 0; k < windows.size(); k++) {
+                            if (windows.get(k).startEpochMillis() <= in[i] && in[i] < windows.get(k).endEpochMillis()) {
+                                expected = k;
+                            }
+                        }
+                        String message = unit + " " + step + " " + in[i];
+                        assertEquals(message, expected, bucketer.bucketOf(in[i]));
+                        assertEquals(message, expected, out[i]);
+                        if (expected >= 0) {
+                            assertEquals(windows.get(expected).toString(), bucketer.window(expected).toString());
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TimeWindowCodecTest {
+
+    private final TimeWindowBuilder t = TimeWindow.withTimeZone("PDT").withOffset("2016-06-26 01:23:45-0700");
+
+    private static void assertSame(TimeWindow expected, TimeWindow actual) {
+        assertEquals(expected.getStart().toOffsetDateTime(), actual.getStart().toOffsetDateTime());
+        assertEquals(expected.getEnd().toOffsetDateTime(), actual.getEnd().toOffsetDateTime());
+    }
+
+    private static ZonedDateTime at(long epochMillis, ZoneId zone) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+
+    @Test
+    public void binary() {
+        ByteBuffer buffer = ByteBuffer.allocate(TimeWindowCodec.MAX_ENCODED_LENGTH);
+        TimeWindow w = t.parse("-1d");
+        int length = TimeWindowCodec.encode(w, buffer);
+        assertEquals(buffer.position(), length);
+        assertTrue(length < 12);
+        buffer.flip();
+        assertSame(w, TimeWindowCodec.decode(buffer));
+        assertEquals(0, buffer.remaining());
+
+        buffer.clear();
+        TimeWindowCodec.encode(w.toLongTimeWindow(), buffer);
+        buffer.flip();
+        LongTimeWindow l = TimeWindowCodec.decodeLong(buffer);
+        assertEquals(w.startEpochMillis(), l.getStartEpochMillis());
+        assertEquals(w.endEpochMillis(), l.getEndEpochMillis());
+        assertEquals(ZoneOffset.ofHours(-7), l.getZone());
+
+        // Offsets of both ends, including an offset which is not a multiple of quarter hours
+        Random random = new Random(0);
+        ZoneId[] zones = {ZoneOffset.UTC, ZoneOffset.ofHoursMinutes(5, 45), ZoneOffset.ofTotalSeconds(-18 * 3600),
+                ZoneOffset.ofTotalSeconds(4 * 3600 + 7), ZoneId.of("America/Los_Angeles")};
+        for (int i = 0; i < 1000; i++) {
+            ZoneId zone = zones[random.nextInt(zones.length)];
+            long start = random.nextLong() % (200L * 365 * 24 * 3600 * 1000);
+            long end = start + random.nextInt(Integer.MAX_VALUE);
+            TimeWindow window = new TimeWindow(at(start, zone), at(end, zone));
+            buffer.clear();
+            TimeWindowCodec.encode(window, buffer);
+            buffer.flip();
+            assertSame(window, TimeWindowCodec.decode(buffer));
+        }
+
+        buffer.clear();
+        buffer.put((byte) 0).put((byte) 0x80);
+        buffer.flip();
+        try {
+            TimeWindowCodec.decode(buffer);
+            fail();
+        } catch (BufferUnderflowException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void list() {
+        List<TimeWindow> hours = t.parse("-7d").splitIntoHours();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(hours.size() * TimeWindowCodec.MAX_ENCODED_LENGTH + 10);
+        int length = TimeWindowCodec.encodeAll(hours, buffer);
+        // Consecutive hours are encoded in 1 + 1 + 4 bytes
+        assertTrue(length <= hours.size() * 6 + 12);
+        buffer.flip();
+        List<TimeWindow> decoded = TimeWindowCodec.decodeAll(buffer);
+        assertEquals(hours.size(), decoded.size());
+        for (int i = 0; i < hours.size(); i++) {
+            assertSame(hours.get(i), decoded.get(i));
+        }
+
+        buffer.clear();
+        TimeWindowCodec.encodeAll(new ArrayList<>(), buffer);
+        buffer.flip();
+        assertEquals(0, TimeWindowCodec.decodeAll(buffer).size());
+    }
+
+    @Test
+    public void text() {
+        TimeWindow w = t.parse("-1d");
+        assertEquals("[2016-06-25 00:00:00-0700,2016-06-26 00:00:00-0700)", TimeWindowCodec.toText(w));
+        assertEquals(w.toString(), TimeWindowCodec.toText(w));
+        assertSame(w, TimeWindowCodec.parseText(TimeWindowCodec.toText(w)));
+
+        TimeWindow m = new TimeWindow(at(1466929425007L, ZoneOffset.ofHours(-7)), at(1466929425120L, ZoneOffset.UTC));
+        assertEquals("[2016-06-26 01:23:45.007-0700,2016-06-26 08:23:45.120Z)", TimeWindowCodec.toText(m));
+        assertSame(m, TimeWindowCodec.parseText(TimeWindowCodec.toText(m)));
+
+        String[] invalid = {"", "[)", "[2016-06-25 00:00:00-0700)", "2016-06-25,2016-06-26", "[2016-06-25,2016-13-26)"};
+        for (String s : invalid) {
+            try {
+                TimeWindowCodec.parseText(s);
+                fail(s);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimeWindowIndexTest {
+
+    TimeWindowBuilder t = TimeWindow.withTimeZone("PDT").withOffset("2016-06-26 01:23:45-0700");
+
+    private static TimeWindow window(long start, long end) {
+        return new TimeWindow(
+            ZonedDateTime.ofInstant(Instant.ofEpochMilli(start), ZoneOffset.UTC),
+            ZonedDateTime.ofInstant(Instant.ofEpochMilli(end), ZoneOffset.UTC));
+    }
+
+    private static List<TimeWindow> bruteForce(List<TimeWindow> windows, TimeWindow query) {
+        List<TimeWindow> result = new ArrayList<>();
+        for (TimeWindow w : windows) {
+            if (w.intersectsWith(query)) {
+                result.add(w);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void query() {
+        TimeWindowIndex index = new TimeWindowIndex(Arrays.asList(
+            t.parse("today"), t.parse("yesterday"), t.parse("thisMonth"), t.parse("-1h/now")));
+
+        assertEquals(4, index.size());
+        // The end of "-1h/now" is exclusive
+        assertEquals(Arrays.asList(t.parse("thisMonth").toString(), t.parse("today").toString()).toString(),
+            index.containing(t.now()).toString());
+        assertEquals(3, index.containing(t.now().minusMinutes(1)).size());
+        assertEquals(Arrays.asList(t.parse("thisMonth").toString(), t.parse("yesterday").toString()).toString(),
+            index.overlapping(t.parse("-1d/2016-06-25 12:00:00)")).toString());
+        assertTrue(index.isCovered(t.parse("lastMonth").endEpochMillis()));
+        assertFalse(index.isCovered(t.parse("lastMonth").startEpochMillis()));
+        assertFalse(index.intersectsWith(t.parse("nextMonth")));
+
+        assertTrue(index.remove(t.parse("thisMonth")));
+        assertFalse(index.remove(t.parse("thisMonth")));
+        assertEquals(1, index.containing(t.now()).size());
+    }
+
+    @Test
+    public void randomQueries() {
+        Random random = new Random(0);
+        List<TimeWindow> windows = new ArrayList<>();
+        TimeWindowIndex index = new TimeWindowIndex();
+        for (int i = 0; i < 2000; i++) {
+            long start = random.nextInt(100000);
+            TimeWindow w = window(start, start + random.nextInt(1000));
+            windows.add(w);
+            index.add(w);
+        }
+        windows.sort((a, b) -> a.startEpochMillis() != b.startEpochMillis()
+            ? Long.compare(a.startEpochMillis(), b.startEpochMillis())
+            : Long.compare(a.endEpochMillis(), b.endEpochMillis()));
+
+        for (int i = 0; i < 1000; i++) {
+            long start = random.nextInt(101000);
+            TimeWindow query = window(start, start + random.nextInt(500) + 1);
+            List<TimeWindow> expected = bruteForce(windows, query);
+            List<TimeWindow> actual = index.overlapping(query);
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.get(j).startEpochMillis(), actual.get(j).startEpochMillis());
+                assertEquals(expected.get(j).endEpochMillis(), actual.get(j).endEpochMillis());
+            }
+            assertEquals(!expected.isEmpty(), index.intersectsWith(query));
+            assertEquals(bruteForce(windows, window(start, start + 1)).size(), index.containing(start).size());
+        }
+    }
+
+    @Test
+    public void updates() {
+        Random random = new Random(1);
+        List<TimeWindow> windows = new ArrayList<>();
+        TimeWindowIndex index = new TimeWindowIndex();
+        for (int i = 0; i < 3000; i++) {
+            long start = random.nextInt(10000);
+            TimeWindow w = window(start, start + random.nextInt(100));
+            windows.add(w);
+            index.add(w);
+            if (random.nextInt(3) == 0) {
+                TimeWindow removed = windows.remove(random.nextInt(windows.size()));
+                assertTrue(index.remove(removed));
+            }
+        }
+        List<TimeWindow> bulk = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long start = random.nextInt(10000);
+            bulk.add(window(start, start + random.nextInt(100)));
+        }
+        windows.addAll(bulk);
+        index.addAll(bulk);
+        assertFalse(index.remove(window(20000, 20001)));
+        assertEquals(windows.size(), index.size());
+
+        List<TimeWindow> all = index.toList();
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).startEpochMillis() <= all.get(i).startEpochMillis());
+        }
+        for (int i = 0; i < 1000; i++) {
+            long start = random.nextInt(10100);
+            TimeWindow query = window(start, start + random.nextInt(50) + 1);
+            assertEquals(bruteForce(windows, query).size(), index.overlapping(query).size());
+            assertEquals(!bruteForce(windows, query).isEmpty(), index.intersectsWith(query));
+            assertEquals(bruteForce(windows, window(start, start + 1)).size(), index.containing(start).size());
+        }
+    }
+}
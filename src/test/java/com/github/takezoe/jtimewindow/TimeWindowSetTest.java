@@ -0,0 +1,80 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimeWindowSetTest {
+
+    TimeWindowBuilder t = TimeWindow.withTimeZone("PDT").withOffset("2016-06-26 01:23:45-0700");
+
+    @Test
+    public void normalize() {
+        TimeWindowSet set = TimeWindowSet.of(t.parse("today"), t.parse("yesterday"), t.parse("-1h/now"), t.parse("nextWeek"));
+        assertEquals(1, set.size());
+        assertEquals("[[2016-06-25 00:00:00-0700,2016-07-04 00:00:00-0700)]", set.toString());
+        assertTrue(set.contains(t.now()));
+        assertFalse(set.contains(t.parse("nextWeek").getEnd()));
+    }
+
+    @Test
+    public void gaps() {
+        // Data gaps = requested range minus already materialized partitions
+        TimeWindowSet materialized = TimeWindowSet.of(t.parse("-2d/-2d/0d"), t.parse("yesterday"));
+        TimeWindowSet gaps = materialized.complement(t.parse("-7d"));
+        assertEquals("[[2016-06-19 00:00:00-0700,2016-06-22 00:00:00-0700), [2016-06-24 00:00:00-0700,2016-06-25 00:00:00-0700)]", gaps.toString());
+        assertEquals(4 * 24 * 60 * 60 * 1000L, gaps.totalMillis());
+        assertEquals(TimeWindowSet.of(t.parse("-7d")), gaps.union(materialized).coalesce(0));
+        assertEquals("[[2016-06-19 00:00:00-0700,2016-06-25 00:00:00-0700)]", gaps.coalesce(2 * 24 * 60 * 60 * 1000L).toString());
+        assertTrue(gaps.intersect(materialized).isEmpty());
+    }
+
+    @Test
+    public void acrossTransition() {
+        // Daylight saving time ends at 2016-11-06 02:00 in Los Angeles
+        TimeWindowBuilder la = TimeWindow.withTimeZone("America/Los_Angeles").withOffset("2016-11-08 01:23:45-0800");
+        TimeWindowSet set = TimeWindowSet.of(la.parse("-1d/2016-11-05"), la.parse("yesterday"));
+        assertEquals("[[2016-11-04 00:00:00-0700,2016-11-05 00:00:00-0700), [2016-11-07 00:00:00-0800,2016-11-08 00:00:00-0800)]", set.toString());
+        assertEquals("[[2016-11-05 00:00:00-0700,2016-11-07 00:00:00-0800)]", set.complement(la.parse("-4d")).toString());
+        assertEquals(ZoneOffset.ofHours(-7), set.getZone());
+        assertEquals(la.parse("yesterday").toString(), set.get(1).toString());
+
+        BusinessCalendar calendar = BusinessCalendar.WEEKDAYS.withWorkingHours(LocalTime.of(9, 0), LocalTime.of(17, 0));
+        TimeWindowSet working = calendar.workingTime(la.parse("-4d"));
+        assertEquals("[2016-11-04 09:00:00-0700,2016-11-04 17:00:00-0700)", working.get(0).toString());
+        assertEquals("[2016-11-07 09:00:00-0800,2016-11-07 17:00:00-0800)", working.get(1).toString());
+    }
+
+    @Test
+    public void randomOperations() {
+        Random random = new Random(0);
+        for (int n = 0; n < 200; n++) {
+            TimeWindowSet a = randomSet(random);
+            TimeWindowSet b = randomSet(random);
+            TimeWindowSet union = a.union(b);
+            TimeWindowSet intersection = a.intersect(b);
+            TimeWindowSet difference = a.subtract(b);
+            for (long x = 0; x < 1100; x++) {
+                assertEquals(a.contains(x) || b.contains(x), union.contains(x));
+                assertEquals(a.contains(x) && b.contains(x), intersection.contains(x));
+                assertEquals(a.contains(x) && !b.contains(x), difference.contains(x));
+            }
+            assertEquals(a.totalMillis() + b.totalMillis(), union.totalMillis() + intersection.totalMillis());
+        }
+    }
+
+    private static TimeWindowSet randomSet(Random random) {
+        long[] bounds = new long[random.nextInt(10) * 2];
+        for (int i = 0; i < bounds.length; i += 2) {
+            bounds[i] = random.nextInt(1000);
+            bounds[i + 1] = bounds[i] + random.nextInt(100);
+        }
+        return TimeWindowSet.ofBounds(ZoneOffset.UTC, bounds);
+    }
+}
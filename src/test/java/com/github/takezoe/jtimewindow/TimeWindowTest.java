@@ -4,12 +4,20 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.TimeZone;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 public class TimeWindowTest {
 
@@ -187,6 +195,185 @@ public class TimeWindowTest {
         System.out.println(days);
     }
 
+    @Test
+    public void compileExpression() {
+        TimeWindowExpression e = TimeWindowExpression.compile("-1M/2018-09-02 12:34:56)");
+        assertEquals(false, e.isRelative());
+        assertEquals("[2018-08-01 00:00:00-0700,2018-09-02 12:34:56-0700)", t.parse(e).toStringAt(zone));
+
+        TimeWindowExpression r = TimeWindowBuilder.compile("-7d/now");
+        assertEquals(true, r.isRelative());
+        assertSame(r, TimeWindowBuilder.compile("-7d/now"));
+        assertEquals("[2016-06-19 00:00:00-0700,2016-06-26 01:23:45-0700)", t.parse(r).toStringAt(zone));
+    }
+
+    @Test
+    public void streamTimeWindow() {
+        TimeWindow w = t.parse("-1y/now");
+        assertEquals(w.splitIntoHours().toString(), w.streamHours().collect(Collectors.toList()).toString());
+        assertEquals(w.splitIntoDays().toString(), w.streamDays().collect(Collectors.toList()).toString());
+        assertEquals(w.splitIntoMonths().toString(), w.streamMonths().collect(Collectors.toList()).toString());
+        TimeWindow weeks = t.parse("-5w/2017-06-01");
+        assertEquals(weeks.splitIntoWeeks().toString(), weeks.streamWeeks().collect(Collectors.toList()).toString());
+
+        // The named stream methods keep the time of day of the start as the list methods do
+        TimeWindow notMidnight = new TimeWindow(ZonedDateTime.parse("2016-06-01T10:00:00Z"), ZonedDateTime.parse("2016-06-20T10:00:00Z"));
+        assertEquals(3, notMidnight.streamWeeks().count());
+        assertEquals(notMidnight.splitIntoWeeks().toString(), notMidnight.streamWeeks().collect(Collectors.toList()).toString());
+        assertEquals(notMidnight.splitIntoWeeks().toString(), notMidnight.streamWeeks().parallel().collect(Collectors.toList()).toString());
+        TimeWindow months = t.parse("-1y/now").plus(10, ChronoUnit.HOURS);
+        assertEquals(months.splitIntoMonths().toString(), months.streamMonths().collect(Collectors.toList()).toString());
+        assertEquals(4, notMidnight.stream(TimeWindowUnit.Week, 1).count());
+
+        // parallel streams keep the order and the boundaries
+        assertEquals(w.splitIntoHours().toString(), w.streamHours().parallel().collect(Collectors.toList()).toString());
+        assertEquals(w.streamDays().count(), w.splitIntoDays().size());
+
+        List<TimeWindow> first = w.streamHours().limit(2).collect(Collectors.toList());
+        assertEquals("[[2015-01-01 00:00:00-0700,2015-01-01 01:00:00-0700), [2015-01-01 01:00:00-0700,2015-01-01 02:00:00-0700)]", first.toString());
+
+        List<TimeWindow> sixHours = t.parse("today/now").stream(TimeWindowUnit.Minute, 30).collect(Collectors.toList());
+        assertEquals(3, sixHours.size());
+        assertEquals("[2016-06-26 01:00:00-0700,2016-06-26 01:23:45-0700)", sixHours.get(2).toString());
+        assertEquals(0, t.parse("0d").streamHours().count());
+    }
+
+    @Test
+    public void splitIntoUnits() {
+        List<TimeWindow> minutes = t.parse("-1h/now").splitInto(TimeWindowUnit.Minute, 5);
+        assertEquals(17, minutes.size());
+        assertEquals("[2016-06-26 00:00:00-0700,2016-06-26 00:05:00-0700)", minutes.get(0).toString());
+        assertEquals("[2016-06-26 01:20:00-0700,2016-06-26 01:23:45-0700)", minutes.get(16).toString());
+
+        List<TimeWindow> seconds = t.parse("-1m/now").splitInto(TimeWindowUnit.Second, 15);
+        assertEquals(7, seconds.size());
+        assertEquals("[2016-06-26 01:23:30-0700,2016-06-26 01:23:45-0700)", seconds.get(6).toString());
+
+        List<TimeWindow> quarters = t.parse("thisYear").splitInto(TimeWindowUnit.Quarter, 1);
+        assertEquals("[[2016-01-01 00:00:00-0700,2016-04-01 00:00:00-0700), [2016-04-01 00:00:00-0700,2016-07-01 00:00:00-0700), "
+            + "[2016-07-01 00:00:00-0700,2016-10-01 00:00:00-0700), [2016-10-01 00:00:00-0700,2017-01-01 00:00:00-0700)]", quarters.toString());
+
+        List<TimeWindow> years = t.parse("-3y/now").splitInto(TimeWindowUnit.Year, 2);
+        assertEquals(2, years.size());
+        assertEquals("[2015-01-01 00:00:00-0700,2016-06-26 01:23:45-0700)", years.get(1).toString());
+
+        // Fixed length units are computed arithmetically, and give the same boundaries as the calendar
+        TimeWindow w = t.parse("-3d/now");
+        List<TimeWindow> hours = w.splitInto(TimeWindowUnit.Hour, 6);
+        ZonedDateTime grid = TimeWindowUnit.Hour.truncate(w.getStart());
+        for (int i = 1; i < hours.size(); i++) {
+            assertEquals(TimeWindowUnit.Hour.increment(grid, 6 * i).toInstant(), hours.get(i).getStart().toInstant());
+        }
+        assertEquals(w.getEnd(), hours.get(hours.size() - 1).getEnd());
+    }
+
+    @Test
+    public void parseAll() {
+        List<String> expressions = Arrays.asList("-1h", "-7d/now", "invalid", "-1M/0M", "-1h", "-3d/2017-04-07", "-1h/xyz");
+        List<TimeWindowResult> results = t.parseAll(expressions);
+        assertEquals(expressions.size(), results.size());
+        for (int i = 0; i < expressions.size(); i++) {
+            TimeWindowResult r = results.get(i);
+            assertEquals(expressions.get(i), r.getExpression());
+            if (r.isSuccess()) {
+                assertEquals(t.parse(expressions.get(i)).toString(), r.getWindow().toString());
+            }
+        }
+        assertEquals(false, results.get(2).isSuccess());
+        assertEquals("Invalid duration: invalid", results.get(2).getError().getMessage());
+        assertEquals(false, results.get(6).isSuccess());
+        assertSame(results.get(0), results.get(4));
+    }
+
+    @Test
+    public void regionZone() {
+        TimeWindowBuilder la = TimeWindow.withTimeZone("America/Los_Angeles").withOffset("2016-03-14 12:00:00-0700");
+        assertEquals(ZoneId.of("America/Los_Angeles"), la.getZoneId());
+        assertEquals(ZoneOffset.ofHours(-7), la.getZone());
+        // The day of the DST transition has 23 hours
+        assertEquals("[2016-03-12 00:00:00-0800,2016-03-14 00:00:00-0700)", la.parse("-2d").toString());
+        assertEquals("[2016-03-13 00:00:00-0800,2016-03-14 00:00:00-0700)", la.parse("-1d").toString());
+        assertEquals(23, la.parse("-1d").splitIntoHours().size());
+        assertEquals("[2016-03-01 00:00:00-0800,2016-03-14 12:00:00-0700)", la.parse("thisMonth/now").toString());
+        assertEquals("[2016-03-10 00:00:00-0800,2016-03-14 00:00:00-0700)", la.parse("-4d/2016-03-14").toString());
+
+        // Fixed offset zones are normalized
+        assertEquals(ZoneOffset.UTC, TimeWindow.withTimeZone("UTC").getZoneId());
+        assertEquals(ZoneOffset.ofHours(-7), TimeWindow.withTimeZone("PDT").getZoneId());
+    }
+
+    @Test
+    public void clock() {
+        MutableClock clock = new MutableClock(ZonedDateTime.parse("2016-06-26T01:23:45-07:00").toInstant());
+        TimeWindowBuilder b = TimeWindow.withTimeZone("PDT").withClock(clock);
+        assertSame(clock, b.getClock());
+        assertEquals("[2016-06-26 00:00:00-0700,2016-06-26 01:00:00-0700)", b.parse("-1h").toString());
+        clock.instant = clock.instant.plusSeconds(3600);
+        assertEquals("[2016-06-26 01:00:00-0700,2016-06-26 02:00:00-0700)", b.parse("-1h").toString());
+        // The pinned current time has priority
+        assertEquals("[2016-06-26 00:00:00-0700,2016-06-26 01:00:00-0700)", b.withOffset("2016-06-26 01:23:45-0700").parse("-1h").toString());
+    }
+
+    @Test
+    public void liveWindow() {
+        MutableClock clock = new MutableClock(ZonedDateTime.parse("2016-06-26T01:23:45-07:00").toInstant());
+        TimeWindowBuilder b = TimeWindow.withTimeZone("America/Los_Angeles").withClock(clock);
+
+        LiveTimeWindow lastHour = b.live("-1h");
+        TimeWindow w = lastHour.get();
+        assertEquals("[2016-06-26 00:00:00-0700,2016-06-26 01:00:00-0700)", w.toString());
+        clock.instant = clock.instant.plusSeconds(30 * 60);
+        assertSame(w, lastHour.get());
+        clock.instant = clock.instant.plusSeconds(10 * 60);
+        assertEquals("[2016-06-26 01:00:00-0700,2016-06-26 02:00:00-0700)", lastHour.get().toString());
+
+        LiveTimeWindow fixed = b.live("-3d/2017-04-07");
+        assertSame(fixed.get(), fixed.get());
+
+        // Evaluated results must be same as parsing every time
+        String[] expressions = {
+            "-1h", "-7d", "+7d", "-1M", "thisWeek", "-1h/now", "+7d/now", "-1d/-1d", "-1h/0h", "+1M/0M", "-3d/yesterday",
+            "0M/2017-01-23", "-1w/-1d/0d", "1d/now"
+        };
+        Random random = new Random(0);
+        for (String expression : expressions) {
+            LiveTimeWindow live = b.live(expression);
+            clock.instant = ZonedDateTime.parse("2016-03-10T00:00:00-08:00").toInstant();
+            for (int i = 0; i < 2000; i++) {
+                // Sometimes stop exactly at hours
+                if (random.nextInt(10) == 0) {
+                    clock.instant = clock.instant.plusSeconds(3600 - clock.instant.getEpochSecond() % 3600);
+                } else {
+                    clock.instant = clock.instant.plusMillis(random.nextInt(20 * 60 * 1000));
+                }
+                assertEquals(expression + " at " + clock.instant, b.parse(expression).toString(), live.get().toString());
+            }
+        }
+    }
+
+    static class MutableClock extends Clock {
+        Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
     @Test
     public void parseTimeZone() {
         // Sanity tests
@@ -0,0 +1,80 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class TimeWindowUnitTest {
+
+    private static final ZoneOffset[] zones = {
+        ZoneOffset.UTC, ZoneOffset.ofHours(-7), ZoneOffset.ofHours(9), ZoneOffset.ofHoursMinutes(5, 45), ZoneOffset.ofHoursMinutes(-3, -30)
+    };
+
+    @Test
+    public void truncateAndIncrementMillis() {
+        Random random = new Random(0);
+        long from = ZonedDateTime.parse("1900-01-01T00:00:00Z").toInstant().toEpochMilli();
+        long to = ZonedDateTime.parse("2200-01-01T00:00:00Z").toInstant().toEpochMilli();
+
+        for (int i = 0; i < 20000; i++) {
+            long millis = from + (long) (random.nextDouble() * (to - from));
+            ZoneOffset zone = zones[random.nextInt(zones.length)];
+            long v = random.nextInt(61) - 30;
+            ZonedDateTime t = ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+
+            for (TimeWindowUnit unit : TimeWindowUnit.values()) {
+                String message = unit + " " + t + " " + v;
+                assertEquals(message, unit.truncate(t).toInstant().toEpochMilli(), unit.truncateMillis(millis, zone));
+                assertEquals(message, unit.increment(t, v).toInstant().toEpochMilli(), unit.incrementMillis(millis, v, zone));
+            }
+        }
+    }
+
+    @Test
+    public void truncateAndIncrementMillisOnRegionZones() {
+        // Zones whose transitions don't happen at midnight
+        ZoneId[] regions = {
+            ZoneId.of("America/Los_Angeles"), ZoneId.of("Europe/London"), ZoneId.of("Europe/Dublin"),
+            ZoneId.of("Australia/Lord_Howe"), ZoneId.of("Australia/Adelaide")
+        };
+        Random random = new Random(0);
+        long from = ZonedDateTime.parse("2000-01-01T00:00:00Z").toInstant().toEpochMilli();
+        long to = ZonedDateTime.parse("2040-01-01T00:00:00Z").toInstant().toEpochMilli();
+
+        for (int i = 0; i < 20000; i++) {
+            ZoneId zone = regions[random.nextInt(regions.length)];
+            long millis = from + (long) (random.nextDouble() * (to - from));
+            ZoneOffsetTransition transition = zone.getRules().nextTransition(Instant.ofEpochMilli(millis));
+            if (i % 2 == 0 && transition != null) {
+                // Around transitions
+                millis = transition.getInstant().toEpochMilli() + random.nextInt(4 * 60 * 60 * 1000) - 2 * 60 * 60 * 1000;
+            }
+            long v = random.nextInt(61) - 30;
+            ZonedDateTime t = ZonedDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+
+            for (TimeWindowUnit unit : TimeWindowUnit.values()) {
+                String message = unit + " " + t + " " + v;
+                assertEquals(message, unit.truncate(t).toInstant().toEpochMilli(), unit.truncateMillis(millis, zone));
+                assertEquals(message, unit.increment(t, v).toInstant().toEpochMilli(), unit.incrementMillis(millis, v, zone));
+            }
+        }
+    }
+
+    @Test
+    public void endOfMonth() {
+        ZonedDateTime t = ZonedDateTime.parse("2016-01-31T12:34:56.789-07:00");
+        long millis = t.toInstant().toEpochMilli();
+        for (TimeWindowUnit unit : new TimeWindowUnit[]{TimeWindowUnit.Month, TimeWindowUnit.Quarter, TimeWindowUnit.Year}) {
+            for (int v = -13; v <= 13; v++) {
+                assertEquals(unit.increment(t, v).toInstant().toEpochMilli(), unit.incrementMillis(millis, v, t.getOffset()));
+            }
+        }
+    }
+}
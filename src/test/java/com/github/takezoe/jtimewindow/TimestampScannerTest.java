@@ -0,0 +1,67 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class TimestampScannerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void scanFile() throws IOException {
+        ZoneOffset zone = ZoneOffset.ofHours(-7);
+        StringBuilder sb = new StringBuilder();
+        List<Long> expected = new ArrayList<>();
+        long millis = 1483336883000L;
+        for (int i = 0; i < 1000; i++) {
+            millis += i * 1234;
+            if (i % 7 == 3) {
+                sb.append("broken\tline\n");
+                continue;
+            }
+            sb.append("INFO\t").append(TimeStampFormatter.formatTimestampWithNoSpace(millis, zone))
+              .append("\tmessage ").append(i).append(i % 2 == 0 ? "\r\n" : "\n");
+            expected.add(millis);
+        }
+        // The last line doesn't have a line separator
+        sb.append("WARN\t2017-01-01 23:01:23");
+        expected.add(1483336883000L);
+
+        Path file = folder.newFile("log.tsv").toPath();
+        Files.write(file, sb.toString().getBytes(StandardCharsets.US_ASCII));
+        long[] expectedArray = expected.stream().mapToLong(Long::longValue).toArray();
+
+        TimestampScanner scanner = new TimestampScanner(zone).withField(1);
+        assertArrayEquals(expectedArray, scanner.scan(file));
+        // Lines straddle chunks, and some lines are longer than a chunk
+        assertArrayEquals(expectedArray, scanner.withChunkSize(100).scan(file));
+        assertArrayEquals(expectedArray, scanner.withChunkSize(7).scan(file));
+
+        List<Long> result = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(expected.size(), scanner.scan(buffer, result::add));
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void scanDelimitedField() throws IOException {
+        Path file = folder.newFile("log.csv").toPath();
+        Files.write(file, "a,2017-01-01 01:23:45Z\nb,2017-01-01\nc\n".getBytes(StandardCharsets.US_ASCII));
+        long[] result = new TimestampScanner(ZoneOffset.UTC).withDelimiter(',').withField(1).scan(file);
+        assertArrayEquals(new long[]{1483233825000L, 1483228800000L}, result);
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WatermarkTrackerTest {
+
+    private static final long MINUTE = 60 * 1000L;
+    private static final long T0 = ZonedDateTime.parse("2016-06-26T01:00:00-07:00").toInstant().toEpochMilli();
+
+    @Test
+    public void emitClosedWindows() {
+        List<String> closed = new ArrayList<>();
+        WatermarkTracker tracker = new WatermarkTracker(TimeWindowUnit.Minute, ZoneOffset.ofHours(-7), 30 * 1000L, w -> closed.add(w.toString()));
+
+        assertTrue(tracker.observe(T0 + 10 * 1000));
+        assertTrue(tracker.observe(T0 + MINUTE + 10 * 1000));
+        // Still within the allowed lateness
+        assertTrue(tracker.observe(T0 + 50 * 1000));
+        assertEquals(0, closed.size());
+        assertEquals(2, tracker.openWindows());
+
+        assertTrue(tracker.observe(T0 + MINUTE + 30 * 1000));
+        assertEquals(1, closed.size());
+        assertEquals("[2016-06-26 01:00:00-0700,2016-06-26 01:01:00-0700)", closed.get(0));
+        assertFalse(tracker.observe(T0 + 59 * 1000));
+
+        // Skips the minutes without events
+        assertTrue(tracker.observe(T0 + 5 * MINUTE));
+        assertEquals(2, closed.size());
+        assertEquals("[2016-06-26 01:01:00-0700,2016-06-26 01:02:00-0700)", closed.get(1));
+
+        tracker.flush();
+        assertEquals(3, closed.size());
+        assertEquals("[2016-06-26 01:05:00-0700,2016-06-26 01:06:00-0700)", closed.get(2));
+        assertEquals(0, tracker.openWindows());
+    }
+
+    @Test
+    public void outOfOrderEvents() {
+        List<TimeWindow> closed = new ArrayList<>();
+        long lateness = 10 * MINUTE;
+        WatermarkTracker tracker = new WatermarkTracker(TimeWindowUnit.Minute, ZoneOffset.UTC, lateness, closed::add);
+        Random random = new Random(0);
+        long max = Long.MIN_VALUE;
+        int accepted = 0;
+        Set<Long> minutes = new HashSet<>();
+        for (int i = 0; i < 10000; i++) {
+            // Every 100th event is too late
+            long delay = (i % 100 == 99) ? 2 * lateness : random.nextInt((int) lateness);
+            long t = T0 + i * 1000L - delay;
+            if (tracker.observe(t)) {
+                accepted++;
+                minutes.add(Math.floorDiv(t, MINUTE) * MINUTE);
+            }
+            max = Math.max(max, t);
+            assertEquals(max - lateness, tracker.getWatermark());
+        }
+        assertEquals(9900, accepted);
+        tracker.flush();
+        for (int i = 1; i < closed.size(); i++) {
+            assertTrue(closed.get(i - 1).endEpochMillis() <= closed.get(i).startEpochMillis());
+        }
+        // Each window which has observed events is emitted once
+        assertEquals(minutes.size(), closed.size());
+        for (TimeWindow w : closed) {
+            assertTrue(minutes.contains(w.startEpochMillis()));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.takezoe.jtimewindow;
+
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ZoneRegistryTest {
+
+    @Test
+    public void resolveZoneNames() {
+        assertEquals(ZoneId.of("America/Los_Angeles"), ZoneRegistry.zoneOf("PST"));
+        assertEquals(ZoneOffset.ofHours(-7), ZoneRegistry.zoneOf("PDT"));
+        assertEquals(ZoneId.of("Asia/Tokyo"), ZoneRegistry.zoneOf("Asia/Tokyo"));
+        assertSame(ZoneRegistry.zoneOf("Asia/Tokyo"), ZoneRegistry.zoneOf("Asia/Tokyo"));
+        assertSame(ZoneRegistry.transitionsOf("PST"), ZoneRegistry.transitionsOf(ZoneId.of("America/Los_Angeles")));
+        assertTrue(ZoneRegistry.transitionsOf("PDT").isFixedOffset());
+    }
+
+    @Test
+    public void offsetAt() {
+        String[] names = {"America/Los_Angeles", "Europe/London", "Australia/Lord_Howe", "Asia/Kathmandu", "UTC", "EDT"};
+        long from = ZonedDateTime.parse("1850-01-01T00:00:00Z").toInstant().toEpochMilli();
+        long to = ZonedDateTime.parse("2200-01-01T00:00:00Z").toInstant().toEpochMilli();
+        Random random = new Random(0);
+        for (String name : names) {
+            ZoneId zone = ZoneRegistry.zoneOf(name);
+            ZoneTransitions transitions = ZoneRegistry.transitionsOf(zone);
+            for (int i = 0; i < 5000; i++) {
+                long millis = from + (long) (random.nextDouble() * (to - from));
+                assertEquals(name + " " + millis, zone.getRules().getOffset(Instant.ofEpochMilli(millis)), transitions.offsetAt(millis));
+            }
+        }
+
+        // Exactly at the transitions of 2016 in Los Angeles
+        ZoneTransitions la = ZoneRegistry.transitionsOf("America/Los_Angeles");
+        long spring = ZonedDateTime.parse("2016-03-13T10:00:00Z").toInstant().toEpochMilli();
+        long fall = ZonedDateTime.parse("2016-11-06T09:00:00Z").toInstant().toEpochMilli();
+        assertEquals(-8 * 3600, la.offsetSecondsAt(spring - 1));
+        assertEquals(-7 * 3600, la.offsetSecondsAt(spring));
+        assertEquals(-7 * 3600, la.offsetSecondsAt(fall - 1));
+        assertEquals(-8 * 3600, la.offsetSecondsAt(fall));
+    }
+}